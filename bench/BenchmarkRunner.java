@@ -0,0 +1,93 @@
+package bench;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * BenchmarkRunner class. A small harness in the spirit of JMH: every benchmark
+ * runs warmup iterations that are thrown away, then measurement iterations of a
+ * fixed duration, and reports throughput, average latency and the bytes
+ * allocated per operation by the benchmark thread (like JMH's gc profiler).
+ */
+public class BenchmarkRunner {
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+    private final com.sun.management.ThreadMXBean threads;
+
+
+    /**
+     * Constructor of the BenchmarkRunner class.
+     *
+     * @param warmupIterations      the number of iterations to throw away
+     * @param measurementIterations the number of iterations to report
+     * @param iterationMillis       the duration of every iteration
+     */
+    public BenchmarkRunner(int warmupIterations, int measurementIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1_000_000;
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.threads.setThreadAllocatedMemoryEnabled(true);
+        System.out.printf("%-28s %-16s %12s %8s %14s %14s %12s%n",
+                "benchmark", "graph", "edges", "degree", "ops/s", "ns/op", "B/op");
+    }
+
+    /**
+     * A benchmarked operation. The returned value is consumed so the JIT cannot
+     * drop the work as dead code.
+     */
+    public interface Operation {
+        Object run() throws Exception;
+    }
+
+    /**
+     * Method to run and report one benchmark.
+     *
+     * @param benchmark the name of the benchmark
+     * @param graph     the name of the graph representation
+     * @param edges     the number of edges of the graph
+     * @param degree    the average degree of the graph
+     * @param operation the operation to measure
+     */
+    public void run(String benchmark, String graph, long edges, int degree, Operation operation)
+            throws Exception {
+        for (int i = 0; i < this.warmupIterations; i++) {
+            this.iteration(operation);
+        }
+        long ops = 0;
+        long nanos = 0;
+        long bytes = 0;
+        for (int i = 0; i < this.measurementIterations; i++) {
+            long[] result = this.iteration(operation);
+            ops += result[0];
+            nanos += result[1];
+            bytes += result[2];
+        }
+        System.out.printf("%-28s %-16s %12d %8d %14.1f %14.1f %12.1f%n", benchmark, graph, edges, degree,
+                ops * 1e9 / nanos, (double) nanos / ops, (double) bytes / ops);
+    }
+
+    /**
+     * Runs the operation until the iteration time is used up.
+     *
+     * @return the operation count, elapsed nanoseconds and allocated bytes
+     */
+    private long[] iteration(Operation operation) throws Exception {
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = this.threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long ops = 0;
+        long elapsed;
+        int sink = 0;
+        do {
+            sink += System.identityHashCode(operation.run());
+            ops++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < this.iterationNanos);
+        long allocated = this.threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return new long[]{ops, elapsed, allocated};
+    }
+}
@@ -0,0 +1,124 @@
+package bench;
+
+import sol.CsrGraph;
+import sol.EdgeArrayGraph;
+import sol.GraphUtils;
+import sol.IGraph;
+import sol.NodeEdgeGraph;
+import sol.Scheduler;
+import src.NoRouteException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * GraphBenchmarks class. It benchmarks every graph representation on the
+ * IGraph operations, GraphUtils routing and Scheduler scheduling, for edge
+ * counts growing tenfold from 1k and for several average degrees.
+ * EdgeArrayGraph is skipped where its N^2 bit matrix would not fit in
+ * MATRIX_BUDGET_BYTES.
+ *
+ * Usage: java bench.GraphBenchmarks [maxEdges] [degree ...]
+ * e.g. java -Xmx16g bench.GraphBenchmarks 10000000 4 64
+ */
+public class GraphBenchmarks {
+    private static final long MATRIX_BUDGET_BYTES = 1L << 30;
+    private static final int QUERIES = 1024;
+
+    public static void main(String[] args) throws Exception {
+        long maxEdges = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        int[] degrees = {4, 64};
+        if (args.length > 1) {
+            degrees = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                degrees[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+        BenchmarkRunner runner = new BenchmarkRunner(3, 5, 500);
+        for (long edges = 1_000; edges <= maxEdges; edges *= 10) {
+            for (int degree : degrees) {
+                int labs = (int) Math.max(2, (edges / degree) & ~1L);
+                if (degree >= labs) {
+                    continue;
+                }
+                if ((long) labs * labs / 8 <= MATRIX_BUDGET_BYTES) {
+                    benchmarkGraph(runner, "EdgeArrayGraph", EdgeArrayGraph::new, labs, edges, degree);
+                }
+                benchmarkGraph(runner, "NodeEdgeGraph", NodeEdgeGraph::new, labs, edges, degree);
+            }
+        }
+    }
+
+    /**
+     * Runs every benchmark on one representation and graph size. The queries use
+     * a fixed set of random labels so that every representation answers the same ones.
+     */
+    private static void benchmarkGraph(BenchmarkRunner runner, String graphName,
+                                       Function<String, IGraph> factory, int labs, long edges, int degree)
+            throws Exception {
+        long constraints = edges / 2;
+        runner.run("addUndirectedEdge (build)", graphName, edges, degree, () -> {
+            IGraph graph = factory.apply("bench");
+            GraphGenerator.addBipartiteEdges(graph, labs, constraints, edges);
+            return graph;
+        });
+        runner.run("addDirectedEdge (build)", graphName, edges, degree, () -> {
+            IGraph graph = factory.apply("bench");
+            Random random = new Random(edges);
+            for (long e = 0; e < edges; e++) {
+                graph.addDirectedEdge(GraphGenerator.label(random.nextInt(labs)),
+                        GraphGenerator.label(random.nextInt(labs)));
+            }
+            return graph;
+        });
+        runner.run("addNode (build)", graphName, edges, degree, () -> {
+            IGraph graph = factory.apply("bench");
+            for (int lab = 0; lab < labs; lab++) {
+                graph.addNode(GraphGenerator.label(lab));
+            }
+            return graph;
+        });
+
+        IGraph graph = factory.apply("bench");
+        GraphGenerator.addBipartiteEdges(graph, labs, constraints, edges);
+        benchmarkQueries(runner, graphName, graph, labs, edges, degree);
+        benchmarkQueries(runner, "CsrGraph", new CsrGraph("bench", graph), labs, edges, degree);
+    }
+
+    /**
+     * Runs the read-only benchmarks on a built graph.
+     */
+    private static void benchmarkQueries(BenchmarkRunner runner, String graphName, IGraph graph,
+                                         int labs, long edges, int degree) throws Exception {
+        Random random = new Random(labs);
+        String[] from = new String[QUERIES];
+        String[] to = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            from[i] = GraphGenerator.label(random.nextInt(labs));
+            to[i] = GraphGenerator.label(random.nextInt(labs));
+        }
+        int[] next = {0};
+        runner.run("getNeighbors", graphName, edges, degree,
+                () -> graph.getNeighbors(from[next[0]++ & (QUERIES - 1)]));
+        runner.run("countSelfEdges", graphName, edges, degree, graph::countSelfEdges);
+        runner.run("reachesAllOthers", graphName, edges, degree,
+                () -> graph.reachesAllOthers(from[next[0]++ & (QUERIES - 1)]));
+        runner.run("hasRoute", graphName, edges, degree, () -> {
+            int i = next[0]++ & (QUERIES - 1);
+            return GraphUtils.hasRoute(graph, from[i], to[i]);
+        });
+        runner.run("getRoute", graphName, edges, degree, () -> {
+            int i = next[0]++ & (QUERIES - 1);
+            try {
+                return GraphUtils.getRoute(graph, from[i], to[i]);
+            } catch (NoRouteException e) {
+                return e;
+            }
+        });
+        ArrayList<HashSet<String>> schedule = Scheduler.findSchedule(graph);
+        runner.run("findSchedule", graphName, edges, degree, () -> Scheduler.findSchedule(graph));
+        runner.run("checkValidity", graphName, edges, degree, () -> Scheduler.checkValidity(graph, schedule));
+    }
+}
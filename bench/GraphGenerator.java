@@ -0,0 +1,44 @@
+package bench;
+
+import sol.IGraph;
+
+import java.util.Random;
+
+/**
+ * GraphGenerator class. It fills graphs with reproducible random lab-constraint
+ * edges for the benchmarks.
+ */
+public class GraphGenerator {
+
+    /**
+     * Adds undirected constraints that always join an even lab with an odd lab,
+     * so the graph stays schedulable. Labs that end up without a constraint are
+     * still added, so the graph always has exactly labs nodes.
+     *
+     * @param graph       the graph to fill, assumed to be empty
+     * @param labs        the number of labs, assumed to be even
+     * @param constraints the number of undirected constraints to add
+     * @param seed        the seed of the random generator
+     */
+    public static void addBipartiteEdges(IGraph graph, int labs, long constraints, long seed) {
+        Random random = new Random(seed);
+        for (int lab = 0; lab < labs; lab += 2) {
+            graph.addUndirectedEdge(label(lab), label(lab + 1));
+        }
+        for (long c = labs / 2; c < constraints; c++) {
+            int lab = random.nextInt(labs);
+            int other = random.nextInt(labs / 2) * 2 + 1 - lab % 2;
+            graph.addUndirectedEdge(label(lab), label(other));
+        }
+    }
+
+    /**
+     * Method to get the label used for a lab number.
+     *
+     * @param lab the lab number
+     * @return the label of the lab
+     */
+    public static String label(int lab) {
+        return "lab " + lab;
+    }
+}
@@ -0,0 +1,36 @@
+package bench;
+
+import sol.IGraph;
+import sol.NodeEdgeGraph;
+import sol.Scheduler;
+import src.NoScheduleException;
+
+/**
+ * SchedulerScalingBenchmark class. It times Scheduler.findSchedule on random
+ * bipartite lab-constraint graphs of doubling size and prints the time per
+ * lab plus constraint. A linear algorithm keeps that column flat as the graph grows.
+ *
+ * Usage: java bench.SchedulerScalingBenchmark [maxLabs] [constraintsPerLab]
+ */
+public class SchedulerScalingBenchmark {
+    private static final int REPETITIONS = 5;
+
+    public static void main(String[] args) throws NoScheduleException {
+        int maxLabs = args.length > 0 ? Integer.parseInt(args[0]) : 256_000;
+        int constraintsPerLab = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        System.out.printf("%10s %12s %12s %14s%n", "labs", "constraints", "best ms", "ns/(N+E)");
+        for (int labs = 1_000; labs <= maxLabs; labs *= 2) {
+            IGraph graph = new NodeEdgeGraph("bipartite " + labs);
+            GraphGenerator.addBipartiteEdges(graph, labs, (long) labs * constraintsPerLab, labs);
+            long edges = (long) labs * constraintsPerLab * 2;
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < REPETITIONS; i++) {
+                long start = System.nanoTime();
+                Scheduler.findSchedule(graph);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%10d %12d %12.2f %14.1f%n",
+                    labs, edges, best / 1e6, (double) best / (labs + edges));
+        }
+    }
+}
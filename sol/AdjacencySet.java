@@ -0,0 +1,158 @@
+package sol;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * AdjacencySet class. It holds the out-neighbors of one node as int ids, in the
+ * order they were added, with no duplicates.
+ * Up to SMALL_DEGREE ids are kept in a plain int[] and searched linearly, which is
+ * faster than hashing at that size. Past it, the set is promoted to an
+ * open-addressing int[] table probed linearly next to the insertion order array,
+ * so add and contains take constant expected time at any degree. The table holds
+ * positions in the insertion order array, so the position of an id, which other
+ * per-edge arrays can be indexed by, is found at the same cost.
+ */
+class AdjacencySet {
+    static final int SMALL_DEGREE = 8;
+
+    private int[] ids; // the neighbors in insertion order
+    private int[] table; // 1 + the position in ids of a neighbor in every slot, or 0 if empty; null while small
+    private int size;
+
+
+    /**
+     * Constructor of the AdjacencySet class.
+     */
+    AdjacencySet() {
+        this.ids = new int[4];
+        this.size = 0;
+    }
+
+    /**
+     * Method to get the number of neighbors in the set.
+     *
+     * @return the number of neighbors
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Method to check whether an id is in the set.
+     *
+     * @param id the node id to look for
+     * @return true if the id is in the set, otherwise false
+     */
+    boolean contains(int id) {
+        return this.indexOf(id) != -1;
+    }
+
+    /**
+     * Method to find the position of an id in the insertion order.
+     *
+     * @param id the node id to look for
+     * @return the number of ids added before it, or -1 if it is not in the set
+     */
+    int indexOf(int id) {
+        if (this.table == null) {
+            for (int i = 0; i < this.size; i++) {
+                if (this.ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int mask = this.table.length - 1;
+        for (int slot = mix(id) & mask; this.table[slot] != 0; slot = (slot + 1) & mask) {
+            if (this.ids[this.table[slot] - 1] == id) {
+                return this.table[slot] - 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Method to add an id at the end of the set, unless it is already there.
+     *
+     * @param id the node id to add
+     * @return true if the id was added, false if it was already in the set
+     */
+    boolean add(int id) {
+        if (this.table == null) {
+            if (this.contains(id)) {
+                return false;
+            }
+            this.append(id);
+            if (this.size > SMALL_DEGREE) {
+                this.rehash(32);
+            }
+            return true;
+        }
+        int mask = this.table.length - 1;
+        int slot = mix(id) & mask;
+        for (; this.table[slot] != 0; slot = (slot + 1) & mask) {
+            if (this.ids[this.table[slot] - 1] == id) {
+                return false;
+            }
+        }
+        this.append(id);
+        this.table[slot] = this.size;
+        if (this.size * 2 > this.table.length) {
+            this.rehash(this.table.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Method to hand every id in the set to an action, in insertion order.
+     *
+     * @param action the action to run on every id
+     */
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < this.size; i++) {
+            action.accept(this.ids[i]);
+        }
+    }
+
+    /**
+     * Method to get the array behind the insertion order. Its first size() entries
+     * are the ids in the set. Adding ids only writes past them, and growing copies
+     * them to a new array, so a prefix that has been read stays valid.
+     *
+     * @return the backing array, not a copy
+     */
+    int[] array() {
+        return this.ids;
+    }
+
+    private void append(int id) {
+        if (this.size == this.ids.length) {
+            this.ids = Arrays.copyOf(this.ids, this.size * 2);
+        }
+        this.ids[this.size++] = id;
+    }
+
+    /**
+     * Rebuilds the table with the given power of two capacity from the insertion order array.
+     */
+    private void rehash(int capacity) {
+        this.table = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < this.size; i++) {
+            int slot = mix(this.ids[i]) & mask;
+            while (this.table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            this.table[slot] = i + 1;
+        }
+    }
+
+    /**
+     * Spreads consecutive ids over the table, since neighbors are often numbered close together.
+     */
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
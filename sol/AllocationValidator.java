@@ -0,0 +1,117 @@
+package sol;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * AllocationValidator class. It checks many proposed allocations of labs
+ * against the same graph, with the same rules as Scheduler.checkValidity.
+ * The adjacency is copied once into a CsrGraph, and every allocation is then
+ * encoded as the instructor of every lab id in a byte[], so checking a lab
+ * only scans an int row instead of resolving and hashing neighbor labels.
+ * A validator can be shared between threads once constructed.
+ */
+public class AllocationValidator {
+    private static final byte UNASSIGNED = -1;
+
+    private final CsrGraph theGraph;
+    private final ThreadLocal<byte[]> assignments; // reused per thread, UNASSIGNED between calls
+
+
+    /**
+     * Constructor of the AllocationValidator class.
+     *
+     * @param theGraph the graph to validate allocations against, which must not change afterwards
+     */
+    public AllocationValidator(IGraph theGraph) {
+        this.theGraph = theGraph.freeze();
+        int nodeCount = this.theGraph.nodeCount();
+        this.assignments = ThreadLocal.withInitial(() -> {
+            byte[] assignment = new byte[nodeCount];
+            Arrays.fill(assignment, UNASSIGNED);
+            return assignment;
+        });
+    }
+
+    /**
+     * Method which checks if a given allocation of labs adheres to the scheduling
+     * constraints of the graph. Labs that are not in the graph make the
+     * allocation invalid.
+     *
+     * @param proposedAlloc the proposed allocation of labs between Kathi and Elijah
+     * @return boolean indicating whether the proposed allocation is valid
+     */
+    public boolean isValid(ArrayList<HashSet<String>> proposedAlloc) {
+        return this.isValid(proposedAlloc, 2);
+    }
+
+    /**
+     * Method which checks if a given allocation of labs between any number of
+     * instructors adheres to the scheduling constraints of the graph: every
+     * neighbor of an assigned lab must be assigned to another instructor. Labs
+     * that are not in the graph make the allocation invalid.
+     *
+     * @param proposedAlloc the proposed labs of every instructor
+     * @param instructors   the number of instructors, at most Byte.MAX_VALUE
+     * @return boolean indicating whether the proposed allocation is valid
+     */
+    public boolean isValid(ArrayList<HashSet<String>> proposedAlloc, int instructors) {
+        if (proposedAlloc.size() != instructors || instructors > Byte.MAX_VALUE) {
+            return false;
+        }
+        byte[] assignment = this.assignments.get();
+        int count = 0;
+        for (HashSet<String> labs : proposedAlloc) {
+            count += labs.size();
+        }
+        int[] assigned = new int[count];
+        int size = 0;
+        boolean valid = true;
+        // encode: every lab gets its instructor, and a lab in two sets or not in the graph fails
+        for (byte instructor = 0; instructor < instructors && valid; instructor++) {
+            for (String lab : proposedAlloc.get(instructor)) {
+                int id = this.theGraph.idOf(lab);
+                if (id == -1 || assignment[id] != UNASSIGNED) {
+                    valid = false;
+                    break;
+                }
+                assignment[id] = instructor;
+                assigned[size++] = id;
+            }
+        }
+        // check: every neighbor of an assigned lab goes to another instructor
+        int[] offsets = this.theGraph.offsets;
+        int[] targets = this.theGraph.targets;
+        for (int i = 0; i < size && valid; i++) {
+            int id = assigned[i];
+            byte own = assignment[id];
+            for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                byte neighbor = assignment[targets[e]];
+                if (neighbor == UNASSIGNED || neighbor == own) {
+                    valid = false;
+                    break;
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            assignment[assigned[i]] = UNASSIGNED;
+        }
+        return valid;
+    }
+
+    /**
+     * Method which checks many allocations at once, in parallel on the common pool.
+     *
+     * @param proposedAllocs the proposed allocations
+     * @return the verdict of every allocation, in the same order
+     */
+    public boolean[] validateAll(List<ArrayList<HashSet<String>>> proposedAllocs) {
+        boolean[] verdicts = new boolean[proposedAllocs.size()];
+        IntStream.range(0, verdicts.length).parallel()
+                .forEach(i -> verdicts[i] = this.isValid(proposedAllocs.get(i)));
+        return verdicts;
+    }
+}
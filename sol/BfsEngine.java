@@ -0,0 +1,333 @@
+package sol;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * BfsEngine class. It runs breadth-first searches over the int ids of an IGraph
+ * using an int[] queue, a long[] visited bitset and an int[] parent array. The
+ * arrays are kept between searches and only grown, so a reused engine does not
+ * allocate per search apart from the returned route.
+ * A search can follow the edges backward, through forEachPredecessor, at the
+ * same cost as forward when the graph indexes its in-edges.
+ * An engine is not thread safe; GraphUtils keeps one per thread.
+ * A search only looks at the nodes that existed when it started, so it can run
+ * while another thread adds nodes to a ConcurrentGraph.
+ * The engine counts the nodes and edges its last search looked at, for GraphMetrics.
+ */
+public class BfsEngine {
+    private final Side forward;
+    private final Side backward;
+    private boolean lastBidirectional; // whether the last search used both sides
+
+
+    /**
+     * Constructor of the BfsEngine class.
+     */
+    public BfsEngine() {
+        this.forward = new Side();
+        this.backward = new Side();
+    }
+
+    /**
+     * The state of one search direction. It is the IntConsumer that is handed to
+     * forEachNeighbor, so expanding a node does not allocate a lambda.
+     */
+    private static class Side implements IntConsumer {
+        int[] queue = new int[0];
+        long[] visited = new long[0];
+        int[] parent = new int[0];
+        int[] depth = new int[0];
+        int head;
+        int tail;
+        int limit; // the node count when the search started, newer nodes are skipped
+        int current; // the node being expanded
+        boolean reversed; // whether this side follows edges backward, from target to source
+        Side other; // set while the bidirectional search looks for a meeting node
+        int meetFrom; // the expanded node of the best meeting edge, or -1
+        int meetTo; // the node of the best meeting edge seen by the other side
+        int meetLength;
+        long scanned; // the edges looked at since the last reset
+
+        void reset(int nodeCount) {
+            if (this.queue.length < nodeCount) {
+                int capacity = Math.max(nodeCount, this.queue.length * 2);
+                this.queue = new int[capacity];
+                this.parent = new int[capacity];
+                this.depth = new int[capacity];
+                this.visited = new long[(capacity + 63) >>> 6];
+            } else {
+                Arrays.fill(this.visited, 0, (nodeCount + 63) >>> 6, 0L);
+            }
+            this.head = 0;
+            this.tail = 0;
+            this.limit = nodeCount;
+            this.other = null;
+            this.meetFrom = -1;
+            this.scanned = 0;
+        }
+
+        /**
+         * Walks the parent array back from a visited node, without recursion.
+         */
+        int[] pathTo(int to) {
+            int length = 0;
+            for (int id = to; id != -1; id = this.parent[id]) {
+                length++;
+            }
+            int[] path = new int[length];
+            for (int id = to; id != -1; id = this.parent[id]) {
+                path[--length] = id;
+            }
+            return path;
+        }
+
+        /**
+         * Dequeues the next node and visits its unvisited neighbors, or predecessors when reversed.
+         */
+        void expand(IGraph theGraph) {
+            this.current = this.queue[this.head++];
+            if (this.reversed) {
+                theGraph.forEachPredecessor(this.current, this);
+            } else {
+                theGraph.forEachNeighbor(this.current, this);
+            }
+        }
+
+        boolean isVisited(int id) {
+            return (this.visited[id >>> 6] & (1L << id)) != 0;
+        }
+
+        void visit(int id, int from, int level) {
+            this.visited[id >>> 6] |= 1L << id;
+            this.parent[id] = from;
+            this.depth[id] = level;
+            this.queue[this.tail++] = id;
+        }
+
+        @Override
+        public void accept(int neighbor) {
+            this.scanned++;
+            if (neighbor >= this.limit) {
+                return;
+            }
+            if (!this.isVisited(neighbor)) {
+                this.visit(neighbor, this.current, this.depth[this.current] + 1);
+            }
+            if (this.other != null && this.other.isVisited(neighbor)) {
+                int length = this.depth[this.current] + 1 + this.other.depth[neighbor];
+                if (this.meetFrom == -1 || length < this.meetLength) {
+                    this.meetFrom = this.current;
+                    this.meetTo = neighbor;
+                    this.meetLength = length;
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to check whether there is a path from one node id to another.
+     *
+     * @param theGraph the graph to traverse
+     * @param from     the id of the node from which to start searching
+     * @param to       the id of the node we want to reach
+     * @return boolean indicating whether such a route exists
+     */
+    public boolean reaches(IGraph theGraph, int from, int to) {
+        return this.search(theGraph, from, to, false);
+    }
+
+    /**
+     * Method to check whether there is a path from one node id to another,
+     * optionally following every edge backward.
+     *
+     * @param theGraph the graph to traverse
+     * @param from     the id of the node from which to start searching
+     * @param to       the id of the node we want to reach
+     * @param backward true to follow edges from their target to their source, which
+     *                 checks whether to reaches from in theGraph
+     * @return boolean indicating whether such a route exists
+     */
+    public boolean reaches(IGraph theGraph, int from, int to, boolean backward) {
+        return this.search(theGraph, from, to, backward);
+    }
+
+    /**
+     * Method to compute a shortest path from one node id to another.
+     *
+     * @param theGraph the graph to traverse
+     * @param from     the id of the node from which to start searching
+     * @param to       the id of the node we want to reach
+     * @return the ids along the path, from first, or null if no such path exists
+     */
+    public int[] route(IGraph theGraph, int from, int to) {
+        return this.route(theGraph, from, to, false);
+    }
+
+    /**
+     * Method to compute a shortest path from one node id to another,
+     * optionally following every edge backward.
+     *
+     * @param theGraph the graph to traverse
+     * @param from     the id of the node from which to start searching
+     * @param to       the id of the node we want to reach
+     * @param backward true to follow edges from their target to their source, so that
+     *                 every node of the result has an edge to the node before it
+     * @return the ids along the path, from first, or null if no such path exists
+     */
+    public int[] route(IGraph theGraph, int from, int to, boolean backward) {
+        if (!this.search(theGraph, from, to, backward)) {
+            return null;
+        }
+        return this.forward.pathTo(to);
+    }
+
+    /**
+     * Method to start a search from one node without a target. Later calls to
+     * advanceTo continue the same search, so that queries for several targets from
+     * one source share it and it stops as soon as the last of them is visited.
+     *
+     * @param theGraph the graph to traverse
+     * @param from     the id of the node from which to start searching
+     * @param backward true to follow edges from their target to their source
+     */
+    void start(IGraph theGraph, int from, boolean backward) {
+        this.lastBidirectional = false;
+        Side side = this.forward;
+        side.reset(theGraph.nodeCount());
+        side.reversed = backward;
+        side.visit(from, -1, 0);
+    }
+
+    /**
+     * Method to continue the search begun by start until the target is visited or
+     * the queue runs out. Nodes are visited in order of their distance, so a target
+     * visited earlier already has a shortest path.
+     *
+     * @param theGraph the graph the search was started on
+     * @param to       the id of the node we want to reach
+     * @return true if the target was reached, and pathTo then gives a shortest path to it
+     */
+    boolean advanceTo(IGraph theGraph, int to) {
+        Side side = this.forward;
+        while (side.head < side.tail) {
+            if (side.isVisited(to)) {
+                return true;
+            }
+            side.expand(theGraph);
+        }
+        return side.isVisited(to);
+    }
+
+    /**
+     * Method to get the path the current search found to a node it reached.
+     *
+     * @param to the id of a node advanceTo reached
+     * @return the ids along the path, from the source of the search
+     */
+    int[] pathTo(int to) {
+        return this.forward.pathTo(to);
+    }
+
+    /**
+     * Method to compute a shortest path by searching forward from one node and
+     * backward from the other, always expanding the smaller frontier by a whole
+     * level, until the two searches meet in the middle.
+     *
+     * The backward search goes through forEachPredecessor, so theGraph should index
+     * its in-edges or be a CsrGraph.
+     *
+     * @param theGraph the graph to traverse
+     * @param from     the id of the node from which to start searching
+     * @param to       the id of the node we want to reach
+     * @return the ids along the path, from first, or null if no such path exists
+     */
+    public int[] bidirectionalRoute(IGraph theGraph, int from, int to) {
+        int nodeCount = theGraph.nodeCount();
+        this.forward.reset(nodeCount);
+        this.backward.reset(nodeCount);
+        this.lastBidirectional = true;
+        if (from == to) {
+            return new int[]{from};
+        }
+        this.forward.visit(from, -1, 0);
+        this.backward.visit(to, -1, 0);
+        this.forward.reversed = false;
+        this.backward.reversed = true;
+        this.forward.other = this.backward;
+        this.backward.other = this.forward;
+        while (this.forward.head < this.forward.tail && this.backward.head < this.backward.tail) {
+            Side side = this.forward.tail - this.forward.head <= this.backward.tail - this.backward.head
+                    ? this.forward : this.backward;
+            int levelEnd = side.tail;
+            while (side.head < levelEnd) {
+                side.expand(theGraph);
+            }
+            if (side.meetFrom != -1) {
+                return this.joinPaths(side);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Method to get the number of nodes the last search on this engine visited.
+     *
+     * @return the nodes visited, counting both sides of a bidirectional search
+     */
+    public int lastVisitedCount() {
+        return this.forward.tail + (this.lastBidirectional ? this.backward.tail : 0);
+    }
+
+    /**
+     * Method to get the number of edges the last search on this engine looked at.
+     *
+     * @return the edges scanned, counting both sides of a bidirectional search
+     */
+    public long lastScannedCount() {
+        return this.forward.scanned + (this.lastBidirectional ? this.backward.scanned : 0);
+    }
+
+    /**
+     * Method to set the counts of the last search back to zero, for a caller whose
+     * query may be answered without a search on this engine. The state of the last
+     * search is dropped, so advanceTo and pathTo cannot continue it.
+     */
+    void resetCounts() {
+        this.lastBidirectional = false;
+        this.forward.head = 0;
+        this.forward.tail = 0;
+        this.forward.scanned = 0;
+    }
+
+    /**
+     * Runs a plain search in one direction until the target is visited or the queue runs out.
+     */
+    private boolean search(IGraph theGraph, int from, int to, boolean backward) {
+        this.start(theGraph, from, backward);
+        return this.advanceTo(theGraph, to);
+    }
+
+    /**
+     * Joins the two half paths at the best meeting edge found by the given side.
+     */
+    private int[] joinPaths(Side side) {
+        int[] first = side.pathTo(side.meetFrom);
+        int[] second = side.other.pathTo(side.meetTo);
+        int[] path = new int[first.length + second.length];
+        if (side == this.forward) {
+            // from .. meetFrom, then meetTo .. to
+            System.arraycopy(first, 0, path, 0, first.length);
+            for (int i = 0; i < second.length; i++) {
+                path[first.length + i] = second[second.length - 1 - i];
+            }
+        } else {
+            // from .. meetTo, then meetFrom .. to
+            System.arraycopy(second, 0, path, 0, second.length);
+            for (int i = 0; i < first.length; i++) {
+                path[second.length + i] = first[first.length - 1 - i];
+            }
+        }
+        return path;
+    }
+}
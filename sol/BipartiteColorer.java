@@ -0,0 +1,209 @@
+package sol;
+
+import src.NoScheduleException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+/**
+ * BipartiteColorer class. It splits the nodes of a graph between two instructors
+ * with a breadth-first search over the dense int ids, keeping the instructor of
+ * every node in a byte[], its BFS parent and depth in int[]s and the search queue
+ * in an int[].
+ * Every node is enqueued at most once and every edge is looked at once when its
+ * source is dequeued, so a coloring runs in O(N + E) time and O(N) extra memory.
+ * When an edge joins two nodes of the same instructor, the parents lead from both
+ * ends up to their closest common ancestor, which yields an odd cycle in time
+ * proportional to its length, without a second traversal.
+ */
+public class BipartiteColorer implements IntConsumer {
+    public static final byte UNCOLORED = -1;
+
+    private final IGraph theGraph;
+    private final byte[] colors;
+    private final int[] parents; // the BFS parent of every colored node, -1 for a start node
+    private final int[] depths; // the BFS depth of every colored node
+    private final int[] queue;
+    private final AtomicBoolean cancelled; // set by another colorer of the same graph to stop this one, or null
+    private final boolean collectAll; // keep coloring after a conflict to find the other conflicting components
+    private final ArrayList<List<String>> oddCycles;
+    private int tail;
+    private int current; // the node being expanded
+    private int conflictFrom; // the ends of the first edge joining two nodes of the same instructor, or -1
+    private int conflictTo;
+
+
+    /**
+     * Constructor of the BipartiteColorer class.
+     *
+     * @param theGraph   the graph to color
+     * @param collectAll false to stop at the first conflict, true to record one
+     *                   odd cycle for every conflicting component
+     */
+    public BipartiteColorer(IGraph theGraph, boolean collectAll) {
+        this(theGraph, new byte[theGraph.nodeCount()], new int[theGraph.nodeCount()],
+                new int[theGraph.nodeCount()], theGraph.nodeCount(), null, collectAll);
+        Arrays.fill(this.colors, UNCOLORED);
+    }
+
+    /**
+     * Constructor for colorers that share the per-node arrays, each coloring its
+     * own connected components. Components are disjoint, so the colorers never
+     * write the same element.
+     *
+     * @param theGraph      the graph to color
+     * @param colors        the shared color array, filled with UNCOLORED
+     * @param parents       the shared parent array
+     * @param depths        the shared depth array
+     * @param queueCapacity the number of nodes in the largest component to color
+     * @param cancelled     the flag that stops colorFrom early once it is set
+     * @param collectAll    whether to keep coloring after a conflict
+     */
+    BipartiteColorer(IGraph theGraph, byte[] colors, int[] parents, int[] depths, int queueCapacity,
+                     AtomicBoolean cancelled, boolean collectAll) {
+        this.theGraph = theGraph;
+        this.colors = colors;
+        this.parents = parents;
+        this.depths = depths;
+        this.queue = new int[queueCapacity];
+        this.cancelled = cancelled;
+        this.collectAll = collectAll;
+        this.oddCycles = new ArrayList<>();
+    }
+
+    /**
+     * Method to color every node of a graph with instructor 0 or 1 so that no
+     * edge joins two nodes of the same instructor.
+     *
+     * @param theGraph the graph to color
+     * @return the instructor of every node, indexed by id
+     * @throws NoScheduleException carrying an odd cycle, if no such coloring exists
+     */
+    public static byte[] color(IGraph theGraph) throws NoScheduleException {
+        return color(theGraph, false);
+    }
+
+    /**
+     * Method to color every node of a graph with instructor 0 or 1 so that no
+     * edge joins two nodes of the same instructor.
+     *
+     * @param theGraph   the graph to color
+     * @param collectAll false to stop at the first conflict, true to color the whole
+     *                   graph and report an odd cycle for every conflicting component
+     * @return the instructor of every node, indexed by id
+     * @throws NoScheduleException carrying the odd cycles found, if no such coloring exists
+     */
+    public static byte[] color(IGraph theGraph, boolean collectAll) throws NoScheduleException {
+        BipartiteColorer colorer = new BipartiteColorer(theGraph, collectAll);
+        for (int id = 0; id < colorer.colors.length; id++) {
+            if (colorer.colors[id] == UNCOLORED) {
+                colorer.colorFrom(id);
+            }
+        }
+        if (!colorer.oddCycles.isEmpty()) {
+            throw new NoScheduleException(colorer.oddCycles);
+        }
+        return colorer.colors;
+    }
+
+    /**
+     * Method to color everything reachable from an uncolored node, starting with instructor 0.
+     * When collecting all conflicts, at most one odd cycle is recorded per call and
+     * the search goes on so that the rest of the component is not searched again.
+     *
+     * @param start the id of the node to start from
+     * @throws NoScheduleException carrying an odd cycle, if an edge joins two nodes of the
+     *                             same instructor and conflicts are not collected
+     */
+    public void colorFrom(int start) throws NoScheduleException {
+        int head = 0;
+        this.tail = 0;
+        this.conflictFrom = -1;
+        boolean recorded = false;
+        this.colors[start] = 0;
+        this.parents[start] = -1;
+        this.depths[start] = 0;
+        this.queue[this.tail++] = start;
+        while (head < this.tail) {
+            if (this.cancelled != null && this.cancelled.get()) {
+                return;
+            }
+            this.current = this.queue[head++];
+            this.theGraph.forEachNeighbor(this.current, this);
+            if (this.conflictFrom != -1 && !recorded) {
+                List<String> oddCycle = this.oddCycle(this.conflictFrom, this.conflictTo);
+                if (!this.collectAll) {
+                    throw new NoScheduleException(Collections.singletonList(oddCycle));
+                }
+                this.oddCycles.add(oddCycle);
+                recorded = true;
+            }
+        }
+    }
+
+    /**
+     * Method to get the odd cycles recorded so far when collecting all conflicts.
+     *
+     * @return one odd cycle for every conflicting component colored by this colorer
+     */
+    public List<List<String>> getOddCycles() {
+        return this.oddCycles;
+    }
+
+    @Override
+    public void accept(int neighbor) {
+        byte color = this.colors[this.current];
+        if (this.colors[neighbor] == UNCOLORED) {
+            this.colors[neighbor] = (byte) (1 - color);
+            this.parents[neighbor] = this.current;
+            this.depths[neighbor] = this.depths[this.current] + 1;
+            this.queue[this.tail++] = neighbor;
+        } else if (this.colors[neighbor] == color && this.conflictFrom == -1) {
+            this.conflictFrom = this.current;
+            this.conflictTo = neighbor;
+        }
+    }
+
+    /**
+     * Builds the odd cycle closed by the edge from u to v, two nodes of the same
+     * instructor: the tree path from their closest common ancestor down to u,
+     * followed by the tree path from v back up to just below that ancestor.
+     * Both ends have the same color, hence the same depth parity, so the cycle is odd.
+     * If v was colored by an earlier search of a directed graph there is no common
+     * ancestor, and the result is the conflicting path from one start node to the other.
+     */
+    private List<String> oddCycle(int u, int v) {
+        LinkedList<String> down = new LinkedList<>(); // ancestor .. u
+        ArrayList<String> up = new ArrayList<>(); // v .. below the ancestor
+        int a = u;
+        int b = v;
+        while (a != -1 && b != -1 && this.depths[a] > this.depths[b]) {
+            down.addFirst(this.theGraph.labelOf(a));
+            a = this.parents[a];
+        }
+        while (a != -1 && b != -1 && this.depths[b] > this.depths[a]) {
+            up.add(this.theGraph.labelOf(b));
+            b = this.parents[b];
+        }
+        while (a != b) {
+            if (a != -1) {
+                down.addFirst(this.theGraph.labelOf(a));
+                a = this.parents[a];
+            }
+            if (b != -1) {
+                up.add(this.theGraph.labelOf(b));
+                b = this.parents[b];
+            }
+        }
+        if (a != -1) {
+            down.addFirst(this.theGraph.labelOf(a));
+        }
+        down.addAll(up);
+        return down;
+    }
+}
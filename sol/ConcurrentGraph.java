@@ -0,0 +1,389 @@
+package sol;
+
+import src.NodeNameExistsException;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * ConcurrentGraph class that implements the IGraph interface.
+ * Any number of threads may add nodes and edges while others query the graph.
+ * Labels are resolved through a ConcurrentHashMap. New nodes get their dense id
+ * under a single lock, which is only taken for labels that are not in the graph
+ * yet. Their slot is filled first, then their label is put in the map, and the
+ * volatile node count is raised last, so every id below nodeCount() has a mapped
+ * label. Until the count covers a new id, idOf answers -1 for its label, so every
+ * id handed out is below nodeCount().
+ * Every node guards its own adjacency with its monitor, so loaders only contend
+ * when they add edges leaving the same node. After every change a node publishes
+ * the backing array and the degree of its AdjacencySet through volatile fields;
+ * readers take that snapshot without locking and always see a prefix of the
+ * neighbors in insertion order, never a partly added edge.
+ */
+public class ConcurrentGraph implements IGraph {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    String name;
+    private final boolean indexInEdges; // whether every Node keeps its prevNodes
+    private final ConcurrentHashMap<String, Integer> ids; // label -> id
+    private final Object nodeLock; // taken to hand out ids
+    private volatile Node[][] chunks; // node id -> Node, CHUNK_SIZE nodes per chunk
+    private volatile int size; // the number of nodes whose slot is filled
+    private final AtomicLong epoch; // bumped by every node or edge that is actually added
+    private volatile Frozen frozen; // the last result of freeze(), or null
+
+    // ---------------------------------------------
+    // the Node class
+    static class Node {
+        final int id;
+        final String label;
+        private final AdjacencySet nextNodes; // guarded by the node, in insertion order
+        private final AdjacencySet prevNodes; // guarded by the node, or null without the index
+        private volatile int[] nextIds; // nextNodes.array() as of the last change
+        private volatile int nextCount; // nextNodes.size() as of the last change, written last
+        private volatile int[] prevIds;
+        private volatile int prevCount;
+
+        Node(int id, String label, boolean indexInEdges) {
+            this.id = id;
+            this.label = label;
+            this.nextNodes = new AdjacencySet();
+            this.prevNodes = indexInEdges ? new AdjacencySet() : null;
+            this.nextIds = this.nextNodes.array();
+            this.prevIds = indexInEdges ? this.prevNodes.array() : null;
+        }
+
+        synchronized boolean addNext(int to) {
+            if (!this.nextNodes.add(to)) {
+                return false;
+            }
+            this.nextIds = this.nextNodes.array();
+            this.nextCount = this.nextNodes.size();
+            return true;
+        }
+
+        synchronized void addPrev(int from) {
+            if (this.prevNodes.add(from)) {
+                this.prevIds = this.prevNodes.array();
+                this.prevCount = this.prevNodes.size();
+            }
+        }
+
+        synchronized boolean hasNext(int to) {
+            return this.nextNodes.contains(to);
+        }
+    }
+
+
+    /**
+     * A snapshot together with the epoch read before it was copied, published as one reference.
+     */
+    private static class Frozen {
+        final long epoch;
+        final CsrGraph graph;
+
+        Frozen(long epoch, CsrGraph graph) {
+            this.epoch = epoch;
+            this.graph = graph;
+        }
+    }
+
+
+    /**
+     * Constructor of the ConcurrentGraph class.
+     *
+     * @param name the name of the graph
+     */
+    public ConcurrentGraph(String name) {
+        this(name, false);
+    }
+
+    /**
+     * Constructor of the ConcurrentGraph class.
+     *
+     * @param name         the name of the graph
+     * @param indexInEdges true to also keep the in-edges of every node, which makes
+     *                     predecessor queries as fast as neighbor queries
+     */
+    public ConcurrentGraph(String name, boolean indexInEdges) {
+        this.name = name;
+        this.indexInEdges = indexInEdges;
+        this.ids = new ConcurrentHashMap<>();
+        this.nodeLock = new Object();
+        this.chunks = new Node[0][];
+        this.size = 0;
+        this.epoch = new AtomicLong();
+    }
+
+    /**
+     * Method to add a new node with the given description. An exception will
+     * be thrown if the description already names a node in the graph
+     *
+     * @param descr the text description or label to associate with the node
+     * @throws NodeNameExistsException if that description is already
+     *                                 associated with a node in the graph
+     */
+    public void addNode(String descr) throws NodeNameExistsException {
+        synchronized (this.nodeLock) {
+            if (this.ids.containsKey(descr)) {
+                throw new NodeNameExistsException(descr);
+            }
+            this.createNode(descr);
+        }
+    }
+
+    /**
+     * An internal method to get the node of a label, creating it if it does not exist.
+     *
+     * @param descr the text description or label of the node
+     * @return the node associated with the given description
+     */
+    private Node getOrAddNode(String descr) {
+        Integer id = this.ids.get(descr);
+        if (id != null) {
+            return this.node(id);
+        }
+        synchronized (this.nodeLock) {
+            id = this.ids.get(descr);
+            return id != null ? this.node(id) : this.createNode(descr);
+        }
+    }
+
+    /**
+     * An internal method to add a node, holding nodeLock. The slot is filled
+     * first, so readers never see an empty slot, then the label is mapped, and
+     * the node count is raised last, so every label below the count is mapped.
+     * idOf hides the id until then.
+     */
+    private Node createNode(String descr) {
+        int id = this.size;
+        Node[][] current = this.chunks;
+        if (id >>> CHUNK_BITS == current.length) {
+            Node[][] grown = new Node[Math.max(4, current.length * 2)][];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            this.chunks = current = grown;
+        }
+        if (current[id >>> CHUNK_BITS] == null) {
+            current[id >>> CHUNK_BITS] = new Node[CHUNK_SIZE];
+        }
+        Node newNode = new Node(id, descr, this.indexInEdges);
+        current[id >>> CHUNK_BITS][id & (CHUNK_SIZE - 1)] = newNode;
+        this.ids.put(descr, id);
+        this.size = id + 1;
+        this.epoch.incrementAndGet();
+        return newNode;
+    }
+
+    /**
+     * An internal method to get the node of an id below the node count.
+     */
+    private Node node(int id) {
+        return this.chunks[id >>> CHUNK_BITS][id & (CHUNK_SIZE - 1)];
+    }
+
+    /**
+     * Method to add a directed edge between the nodes associated with the given
+     * descriptions. If descr1 and descr2 are not already
+     * valid node labels in the graph, those nodes are also created.
+     * If the edge already exists, no changes are made
+     * (and no exceptions or warnings are raised)
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     */
+    public void addDirectedEdge(String descr1, String descr2) {
+        Node node1 = this.getOrAddNode(descr1);
+        Node node2 = this.getOrAddNode(descr2);
+        this.addEdge(node1, node2);
+    }
+
+    /**
+     * Method to add an undirected edge between the nodes associated with the given
+     * descriptions. This is equivalent to adding two directed edges, one from
+     * descr1 to descr2, and another from descr2 to descr1.
+     * If descr1 and descr2 are not already valid node labels in the graph,
+     * those nodes are also created.
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     */
+    public void addUndirectedEdge(String descr1, String descr2) {
+        Node node1 = this.getOrAddNode(descr1);
+        Node node2 = this.getOrAddNode(descr2);
+        this.addEdge(node1, node2);
+        this.addEdge(node2, node1);
+    }
+
+    /**
+     * Method to add every edge of a batch, in order.
+     *
+     * @param batch the edges to add
+     */
+    public void addEdges(EdgeBatch batch) {
+        for (int i = 0; i < batch.size; i++) {
+            if (batch.directed[i]) {
+                this.addDirectedEdge(batch.sources[i], batch.targets[i]);
+            } else {
+                this.addUndirectedEdge(batch.sources[i], batch.targets[i]);
+            }
+        }
+    }
+
+    /**
+     * An internal method to add an edge, taking the lock of one node at a time.
+     */
+    private void addEdge(Node from, Node to) {
+        if (from.addNext(to.id)) {
+            if (this.indexInEdges) {
+                to.addPrev(from.id);
+            }
+            this.epoch.incrementAndGet();
+        }
+    }
+
+    /**
+     * Method to count how many nodes have edges to themselves
+     *
+     * @return the number of nodes that have edges to themselves
+     */
+    public int countSelfEdges() {
+        int counter = 0;
+        int nodeCount = this.size;
+        for (int id = 0; id < nodeCount; id++) {
+            if (this.node(id).hasNext(id)) {
+                counter++;
+            }
+        }
+        return counter;
+    }
+    /*
+    Linear Time O(N)
+    The runtime depends on the number of "cities" (N) in the graph. For each of them a constant
+    time lookup in its AdjacencySet is performed.
+     */
+
+    /**
+     * Method to check whether a given node has edges to every other node (with or without an edge to itself).
+     * Assumes that fromNodeLabel is a valid node label in the graph.
+     *
+     * @param fromNodeLabel the node to check
+     * @return true if fromNodeLabel has an edge to every other node, otherwise false
+     */
+    public boolean reachesAllOthers(String fromNodeLabel) {
+        Node fromNode = this.node(this.ids.get(fromNodeLabel));
+        int nodeCount = this.size;
+        int others;
+        synchronized (fromNode) {
+            others = fromNode.nextNodes.size() - (fromNode.nextNodes.contains(fromNode.id) ? 1 : 0);
+        }
+        return others == nodeCount - 1;
+    }
+    /*
+    Constant Time O(1)
+    The AdjacencySet of a node holds no duplicates, so the node reaches all others exactly when
+    its out-degree, not counting a self edge, is N - 1.
+     */
+
+    @Override
+    public LinkedList<String> getNeighbors(String checkNode) {
+        LinkedList<String> stringList = new LinkedList<>();
+        this.forEachNeighbor(this.ids.get(checkNode), id -> stringList.add(this.node(id).label));
+        return stringList;
+    }
+
+    @Override
+    public LinkedList<String> getPredecessors(String checkNode) {
+        LinkedList<String> stringList = new LinkedList<>();
+        this.forEachPredecessor(this.ids.get(checkNode), id -> stringList.add(this.node(id).label));
+        return stringList;
+    }
+
+    @Override
+    public ArrayList<String> getAllNodes() {
+        int nodeCount = this.size;
+        ArrayList<String> allNodes = new ArrayList<>(nodeCount);
+        for (int id = 0; id < nodeCount; id++) {
+            allNodes.add(this.node(id).label);
+        }
+        return allNodes;
+    }
+
+    @Override
+    public int nodeCount() {
+        return this.size;
+    }
+
+    @Override
+    public int idOf(String label) {
+        Integer id = this.ids.get(label);
+        return id == null || id >= this.size ? -1 : id;
+    }
+
+    @Override
+    public String labelOf(int id) {
+        return this.node(id).label;
+    }
+
+    @Override
+    public long modificationEpoch() {
+        return this.epoch.get();
+    }
+
+    /**
+     * Method to copy the graph into an immutable CsrGraph. Loaders may keep adding
+     * edges during the copy: every row then holds the edges its node had when the
+     * row was copied, and nodes added after the copy started are left out.
+     *
+     * @return an immutable copy of the graph
+     */
+    @Override
+    public CsrGraph freeze() {
+        long current = this.epoch.get();
+        Frozen last = this.frozen;
+        if (last != null && last.epoch == current) {
+            return last.graph;
+        }
+        // the epoch is read first, so edges added during the copy make the next call copy again
+        Frozen next = new Frozen(current, new CsrGraph(this.name, this));
+        this.frozen = next;
+        return next.graph;
+    }
+
+    @Override
+    public void forEachNeighbor(int id, IntConsumer action) {
+        Node node = this.node(id);
+        int count = node.nextCount; // read before the array, which is then at least as new
+        int[] targets = node.nextIds;
+        for (int i = 0; i < count; i++) {
+            action.accept(targets[i]);
+        }
+    }
+
+    @Override
+    public void forEachPredecessor(int id, IntConsumer action) {
+        Node toNode = this.node(id);
+        if (this.indexInEdges) {
+            int count = toNode.prevCount;
+            int[] sources = toNode.prevIds;
+            for (int i = 0; i < count; i++) {
+                action.accept(sources[i]);
+            }
+            return;
+        }
+        int nodeCount = this.size;
+        for (int from = 0; from < nodeCount; from++) {
+            if (this.node(from).hasNext(id)) {
+                action.accept(from);
+            }
+        }
+    }
+
+    @Override
+    public boolean indexesInEdges() {
+        return this.indexInEdges;
+    }
+}
@@ -0,0 +1,347 @@
+package sol;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.function.IntConsumer;
+
+/**
+ * CsrGraph class that implements the IGraph interface.
+ * It is an immutable graph stored in compressed sparse row form: the out-edges of
+ * node i are targets[offsets[i]] .. targets[offsets[i + 1] - 1], where every node
+ * is identified by a dense int id in [0, nodeCount()). Labels are only kept in a
+ * LabelDictionary and are looked up at the String API boundary.
+ */
+public class CsrGraph implements IGraph {
+    String name;
+    final LabelDictionary labels; // label <-> id, shared with the transposed graph
+    final int[] offsets; // nodeCount() + 1 entries, offsets[nodeCount()] == edgeCount()
+    final int[] targets; // every row sorted by id, without duplicates
+    private volatile CsrGraph transposed; // built on first use by transpose()
+    private volatile AllocationValidator validator; // built on first use by validator()
+
+
+    /**
+     * Constructor of the CsrGraph class.
+     * It copies every node and edge of the given graph into the compressed form.
+     *
+     * @param name   the name of the new graph
+     * @param source the graph to copy
+     */
+    public CsrGraph(String name, IGraph source) {
+        this.name = name;
+        int nodeCount = source.nodeCount();
+        // a ConcurrentGraph may gain nodes during the copy; edges to them are left out
+        this.labels = new LabelDictionary();
+        for (int i = 0; i < nodeCount; i++) {
+            this.labels.intern(source.labelOf(i));
+        }
+        this.offsets = new int[nodeCount + 1];
+        EdgeBuffer buffer = new EdgeBuffer(nodeCount);
+        buffer.limit = nodeCount;
+        for (int i = 0; i < nodeCount; i++) {
+            this.offsets[i] = buffer.size;
+            source.forEachNeighbor(i, buffer);
+            buffer.size = sortRow(buffer.edges, this.offsets[i], buffer.size);
+        }
+        this.offsets[nodeCount] = buffer.size;
+        this.targets = Arrays.copyOf(buffer.edges, buffer.size);
+    }
+
+    /**
+     * Growable int array that collects the rows while copying a graph.
+     */
+    private static class EdgeBuffer implements IntConsumer {
+        int[] edges;
+        int size;
+        int limit; // the number of nodes copied, larger targets are skipped
+
+        EdgeBuffer(int capacity) {
+            this.edges = new int[Math.max(16, capacity)];
+        }
+
+        @Override
+        public void accept(int target) {
+            if (target >= this.limit) {
+                return;
+            }
+            if (this.size == this.edges.length) {
+                this.edges = Arrays.copyOf(this.edges, this.size * 2);
+            }
+            this.edges[this.size++] = target;
+        }
+    }
+
+    /**
+     * Internal constructor over already built arrays. The arrays are taken over,
+     * not copied, so the caller must not modify them afterwards.
+     *
+     * @param name    the name of the new graph
+     * @param labels  the labels of the nodes, which must not change afterwards
+     * @param offsets the row offsets, with labels.size() + 1 entries
+     * @param targets the row contents, every row sorted by id without duplicates
+     */
+    CsrGraph(String name, LabelDictionary labels, int[] offsets, int[] targets) {
+        this.name = name;
+        this.labels = labels;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Method to get the same graph with every edge reversed, so that the neighbors
+     * of a node in the result are its predecessors in this graph. The result is
+     * computed once, in O(N + E), and then reused.
+     *
+     * @return the transposed graph
+     */
+    public CsrGraph transpose() {
+        CsrGraph result = this.transposed;
+        if (result == null) {
+            int nodeCount = this.labels.size();
+            int[] newOffsets = new int[nodeCount + 1];
+            for (int target : this.targets) {
+                newOffsets[target + 1]++;
+            }
+            for (int i = 0; i < nodeCount; i++) {
+                newOffsets[i + 1] += newOffsets[i];
+            }
+            int[] next = Arrays.copyOf(newOffsets, nodeCount);
+            int[] newTargets = new int[this.targets.length];
+            // sources are visited in increasing order, so every new row comes out sorted
+            for (int i = 0; i < nodeCount; i++) {
+                for (int e = this.offsets[i]; e < this.offsets[i + 1]; e++) {
+                    newTargets[next[this.targets[e]]++] = i;
+                }
+            }
+            result = new CsrGraph(this.name, this.labels, newOffsets, newTargets);
+            result.transposed = this;
+            this.transposed = result;
+        }
+        return result;
+    }
+
+    /**
+     * Method to get an AllocationValidator for this graph. It is built on the first
+     * call and then reused, so one-shot checks against the same snapshot share its
+     * per-thread arrays instead of each allocating one of nodeCount() bytes.
+     *
+     * @return the validator of this graph
+     */
+    AllocationValidator validator() {
+        AllocationValidator result = this.validator;
+        if (result == null) {
+            result = new AllocationValidator(this);
+            this.validator = result;
+        }
+        return result;
+    }
+
+    /**
+     * Sorts the row edges[from .. to) and removes duplicate targets from it.
+     *
+     * @return the new end of the row
+     */
+    private static int sortRow(int[] edges, int from, int to) {
+        Arrays.sort(edges, from, to);
+        int end = from;
+        for (int i = from; i < to; i++) {
+            if (end == from || edges[end - 1] != edges[i]) {
+                edges[end++] = edges[i];
+            }
+        }
+        return end;
+    }
+
+    /**
+     * CsrGraph is immutable, so nodes cannot be added.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public void addNode(String descr) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    /**
+     * CsrGraph is immutable, so edges cannot be added.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public void addDirectedEdge(String descr1, String descr2) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    /**
+     * CsrGraph is immutable, so edges cannot be added.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public void addUndirectedEdge(String descr1, String descr2) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    /**
+     * CsrGraph is immutable, so edges cannot be added.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public void addEdges(EdgeBatch batch) {
+        throw new UnsupportedOperationException("CsrGraph is immutable");
+    }
+
+    /**
+     * Method to get the number of nodes in the graph.
+     *
+     * @return the number of nodes
+     */
+    @Override
+    public int nodeCount() {
+        return this.labels.size();
+    }
+
+    /**
+     * Method to get the number of directed edges in the graph.
+     *
+     * @return the number of directed edges
+     */
+    public int edgeCount() {
+        return this.targets.length;
+    }
+
+    /**
+     * Method to get the id of a node label.
+     *
+     * @param label the label to look up
+     * @return the id of the node, or -1 if the label is not in the graph
+     */
+    @Override
+    public int idOf(String label) {
+        return this.labels.idOf(label);
+    }
+
+    /**
+     * Method to get the label of a node id.
+     *
+     * @param id a node id in [0, nodeCount())
+     * @return the label of the node
+     */
+    @Override
+    public String labelOf(int id) {
+        return this.labels.labelOf(id);
+    }
+
+    /**
+     * Method to get the number of edges leaving a node.
+     *
+     * @param id a node id in [0, nodeCount())
+     * @return the out-degree of the node
+     */
+    public int degree(int id) {
+        return this.offsets[id + 1] - this.offsets[id];
+    }
+
+    /**
+     * Method to check whether there is an edge from one node id to another.
+     *
+     * @param from the source node id
+     * @param to   the target node id
+     * @return true if the edge exists, otherwise false
+     */
+    public boolean hasEdge(int from, int to) {
+        return Arrays.binarySearch(this.targets, this.offsets[from], this.offsets[from + 1], to) >= 0;
+    }
+    /*
+    Logarithmic Time O(log D)
+    The runtime depends on the out-degree (D) of the source node, since every row is sorted
+    and searched with a binary search.
+     */
+
+    /**
+     * Method to count how many nodes have edges to themselves
+     *
+     * @return the number of nodes that have edges to themselves
+     */
+    public int countSelfEdges() {
+        int counter = 0;
+        for (int i = 0; i < this.labels.size(); i++) {
+            if (this.hasEdge(i, i)) {
+                counter++;
+            }
+        }
+        return counter;
+    }
+    /*
+    Linearithmic Time O(N log D)
+    The runtime depends on the number of "cities" (N) in the graph. For each of them one binary
+    search over its row is performed.
+     */
+
+    /**
+     * Method to check whether a given node has edges to every other node (with or without an edge to itself).
+     * Assumes that fromNodeLabel is a valid node label in the graph.
+     *
+     * @param fromNodeLabel the node to check
+     * @return true if fromNodeLabel has an edge to every other node, otherwise false
+     */
+    public boolean reachesAllOthers(String fromNodeLabel) {
+        int id = this.labels.idOf(fromNodeLabel);
+        int others = this.degree(id) - (this.hasEdge(id, id) ? 1 : 0);
+        return others == this.labels.size() - 1;
+    }
+    /*
+    Logarithmic Time O(log D)
+    Rows hold no duplicates, so the node reaches all others exactly when its out-degree,
+    not counting a self edge, is N - 1.
+     */
+
+    @Override
+    public LinkedList<String> getNeighbors(String checkNode) {
+        LinkedList<String> stringList = new LinkedList<>();
+        this.forEachNeighbor(this.labels.idOf(checkNode), id -> stringList.add(this.labels.labelOf(id)));
+        return stringList;
+    }
+
+    @Override
+    public LinkedList<String> getPredecessors(String checkNode) {
+        LinkedList<String> stringList = new LinkedList<>();
+        this.forEachPredecessor(this.labels.idOf(checkNode), id -> stringList.add(this.labels.labelOf(id)));
+        return stringList;
+    }
+
+    @Override
+    public long modificationEpoch() {
+        return 0;
+    }
+
+    @Override
+    public CsrGraph freeze() {
+        return this;
+    }
+
+    @Override
+    public void forEachNeighbor(int id, IntConsumer action) {
+        for (int i = this.offsets[id]; i < this.offsets[id + 1]; i++) {
+            action.accept(this.targets[i]);
+        }
+    }
+
+    @Override
+    public void forEachPredecessor(int id, IntConsumer action) {
+        this.transpose().forEachNeighbor(id, action);
+    }
+
+    @Override
+    public boolean indexesInEdges() {
+        return true;
+    }
+
+    @Override
+    public ArrayList<String> getAllNodes() {
+        ArrayList<String> allNodes = new ArrayList<>(this.labels.size());
+        for (int i = 0; i < this.labels.size(); i++) {
+            allNodes.add(this.labels.labelOf(i));
+        }
+        return allNodes;
+    }
+
+}
@@ -0,0 +1,126 @@
+package sol;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * CsvEdgeLoader class. It streams a lab-constraint file into any IGraph. Every
+ * record is one edge, labA,labB[,directed], where the optional third field
+ * makes the edge directed when it is "directed", "true" or "1"; otherwise the
+ * edge is undirected. Empty lines and lines starting with '#' are skipped.
+ * Records are read one at a time and handed to the graph in EdgeBatches, so
+ * the file is never held in memory. The loader keeps no labels between batches;
+ * the graph stores each label once.
+ */
+public class CsvEdgeLoader {
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    private static final CSVFormat FORMAT = CSVFormat.DEFAULT
+            .withCommentMarker('#')
+            .withIgnoreEmptyLines()
+            .withIgnoreSurroundingSpaces();
+
+    private final int batchSize;
+
+
+    /**
+     * Constructor of the CsvEdgeLoader class.
+     *
+     * @param batchSize the number of edges handed to the graph at once
+     */
+    public CsvEdgeLoader(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Constructor of the CsvEdgeLoader class, with the default batch size.
+     */
+    public CsvEdgeLoader() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * The throughput of one load.
+     */
+    public static class LoadReport {
+        public final long records;
+        public final long elapsedNanos;
+
+        LoadReport(long records, long elapsedNanos) {
+            this.records = records;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Method to get the number of records loaded per second.
+         *
+         * @return the records per second
+         */
+        public double recordsPerSecond() {
+            return this.elapsedNanos == 0 ? 0 : this.records * 1e9 / this.elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d records in %.1f ms (%.0f records/s)",
+                    this.records, this.elapsedNanos / 1e6, this.recordsPerSecond());
+        }
+    }
+
+    /**
+     * Method to load a constraint file into a graph.
+     *
+     * @param file     the file to read, in UTF-8
+     * @param theGraph the graph to add the edges to
+     * @return the throughput of the load
+     * @throws IOException if the file cannot be read
+     */
+    public LoadReport load(Path file, IGraph theGraph) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return this.load(reader, theGraph);
+        }
+    }
+
+    /**
+     * Method to load constraint records into a graph.
+     *
+     * @param reader   the records to read
+     * @param theGraph the graph to add the edges to
+     * @return the throughput of the load
+     * @throws IOException if the records cannot be read
+     * @throws IllegalArgumentException if a record has fewer than two fields
+     */
+    public LoadReport load(Reader reader, IGraph theGraph) throws IOException {
+        long start = System.nanoTime();
+        long records = 0;
+        EdgeBatch batch = new EdgeBatch(this.batchSize);
+        try (CSVParser parser = FORMAT.parse(reader)) {
+            for (CSVRecord record : parser) {
+                if (record.size() < 2) {
+                    throw new IllegalArgumentException("Record " + record.getRecordNumber()
+                            + " needs two labs: " + record);
+                }
+                boolean directed = record.size() > 2 && isDirected(record.get(2));
+                batch.add(record.get(0), record.get(1), directed);
+                records++;
+                if (batch.isFull()) {
+                    theGraph.addEdges(batch);
+                    batch.clear();
+                }
+            }
+        }
+        theGraph.addEdges(batch);
+        return new LoadReport(records, System.nanoTime() - start);
+    }
+
+    private static boolean isDirected(String field) {
+        return field.equalsIgnoreCase("directed") || field.equalsIgnoreCase("true") || field.equals("1");
+    }
+}
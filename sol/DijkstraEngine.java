@@ -0,0 +1,150 @@
+package sol;
+
+import java.util.Arrays;
+
+/**
+ * DijkstraEngine class. It runs Dijkstra's algorithm over the int ids of an
+ * IWeightedGraph, with the tentative distances in a double[], the parents in an
+ * int[] and the frontier in an IndexedMinHeap that lowers keys in place, so the
+ * search never boxes an id or a distance and never holds stale heap entries.
+ * The arrays are kept between searches and only grown; a search stamps the nodes
+ * it reaches instead of clearing the arrays, so it only costs the nodes it touches.
+ * An engine is not thread safe; GraphUtils keeps one per thread.
+ * The engine counts the nodes and edges its last search looked at, for GraphMetrics.
+ */
+public class DijkstraEngine implements IntDoubleConsumer {
+    private double[] distances = new double[0];
+    private int[] parents = new int[0];
+    private int[] stamps = new int[0]; // the search that last reached every node
+    private int stamp;
+    private final IndexedMinHeap heap = new IndexedMinHeap();
+    private int limit; // the node count when the search started, newer nodes are skipped
+    private int current; // the node being expanded
+    private double currentDistance;
+    private int settled; // the nodes polled since the last reset
+    private long scanned; // the edges looked at since the last reset
+
+
+    /**
+     * Constructor of the DijkstraEngine class.
+     */
+    public DijkstraEngine() {
+    }
+
+    /**
+     * Method to compute the weight of a lightest path from one node id to another.
+     *
+     * @param theGraph the graph to traverse
+     * @param from     the id of the node from which to start searching
+     * @param to       the id of the node we want to reach
+     * @return the total weight of the path, or Double.POSITIVE_INFINITY if no such path exists
+     */
+    public double distance(IWeightedGraph theGraph, int from, int to) {
+        return this.search(theGraph, from, to) ? this.distances[to] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Method to compute a lightest path from one node id to another.
+     *
+     * @param theGraph the graph to traverse
+     * @param from     the id of the node from which to start searching
+     * @param to       the id of the node we want to reach
+     * @return the ids along the path, from first, or null if no such path exists
+     */
+    public int[] route(IWeightedGraph theGraph, int from, int to) {
+        if (!this.search(theGraph, from, to)) {
+            return null;
+        }
+        int length = 0;
+        for (int id = to; id != -1; id = this.parents[id]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int id = to; id != -1; id = this.parents[id]) {
+            path[--length] = id;
+        }
+        return path;
+    }
+
+    /**
+     * Settles nodes by increasing distance until the target is settled.
+     *
+     * @return true if the target was reached
+     */
+    private boolean search(IWeightedGraph theGraph, int from, int to) {
+        this.reset(theGraph.nodeCount());
+        this.reach(from, -1, 0.0);
+        this.heap.insertOrDecrease(from, 0.0);
+        while (!this.heap.isEmpty()) {
+            this.currentDistance = this.heap.peekKey();
+            this.current = this.heap.poll();
+            this.settled++;
+            if (this.current == to) {
+                return true;
+            }
+            theGraph.forEachWeightedNeighbor(this.current, this);
+        }
+        return false;
+    }
+    /*
+    Time O((N + E) log N)
+    Every node reached is polled once and every edge of a polled node may lower one key,
+    each heap operation taking O(log N). The search stops as soon as the target is polled.
+     */
+
+    /**
+     * Method to get the number of nodes the last search on this engine settled.
+     *
+     * @return the nodes taken off the heap
+     */
+    public int lastSettledCount() {
+        return this.settled;
+    }
+
+    /**
+     * Method to get the number of edges the last search on this engine looked at.
+     *
+     * @return the edges scanned
+     */
+    public long lastScannedCount() {
+        return this.scanned;
+    }
+
+    @Override
+    public void accept(int neighbor, double weight) {
+        this.scanned++;
+        if (neighbor >= this.limit) {
+            return;
+        }
+        double candidate = this.currentDistance + weight;
+        // weights are not negative, so a settled node is never improved and never re-enters the heap
+        if (this.stamps[neighbor] != this.stamp || candidate < this.distances[neighbor]) {
+            this.reach(neighbor, this.current, candidate);
+            this.heap.insertOrDecrease(neighbor, candidate);
+        }
+    }
+
+    private void reach(int id, int parent, double distance) {
+        this.stamps[id] = this.stamp;
+        this.parents[id] = parent;
+        this.distances[id] = distance;
+    }
+
+    private void reset(int nodeCount) {
+        if (this.distances.length < nodeCount) {
+            int capacity = Math.max(nodeCount, this.distances.length * 2);
+            this.distances = new double[capacity];
+            this.parents = new int[capacity];
+            this.stamps = new int[capacity];
+            this.stamp = 0;
+        }
+        if (++this.stamp == 0) { // the stamps wrapped around, so old stamps could match again
+            Arrays.fill(this.stamps, 0);
+            this.stamp = 1;
+        }
+        this.heap.reset(nodeCount);
+        this.limit = nodeCount;
+        this.settled = 0;
+        this.scanned = 0;
+    }
+}
@@ -0,0 +1,176 @@
+package sol;
+
+import src.NoScheduleException;
+
+import java.util.Arrays;
+
+/**
+ * DsaturColorer class. It splits the nodes of a graph between k instructors with
+ * the DSATUR heuristic: the next node to color is always one whose neighbors
+ * already use the most distinct instructors (its saturation), and it gets the
+ * lowest instructor none of them uses. An edge constrains both of its ends, so
+ * neighbors are looked up in both directions, through the frozen graph and its
+ * transpose.
+ * The instructors used around every node are kept in a long mask, and the
+ * uncolored nodes in one doubly linked list per saturation, so picking a node and
+ * raising a saturation are constant time and a coloring runs in O(N + E + k).
+ * Nodes are pushed into the first bucket by increasing degree, so among the nodes
+ * without colored neighbors the one of highest degree is picked first. The higher
+ * buckets are stacks: among nodes of equal saturation, the one that reached it last
+ * is picked, whatever its degree.
+ * DSATUR is a heuristic: it always finds a coloring of a bipartite graph, but may
+ * fail on some graphs that do have a coloring with k instructors.
+ */
+public class DsaturColorer {
+    public static final int MAX_INSTRUCTORS = 64;
+
+    private final int nodeCount;
+    private final int instructors;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] inOffsets;
+    private final int[] inTargets;
+    private final long[] used; // the instructors of the colored neighbors of every node
+    private final int[] heads; // the first uncolored node of every saturation, or -1
+    private final int[] next;
+    private final int[] previous;
+    private final byte[] colors;
+
+
+    private DsaturColorer(CsrGraph theGraph, int instructors) {
+        this.nodeCount = theGraph.nodeCount();
+        this.instructors = instructors;
+        this.offsets = theGraph.offsets;
+        this.targets = theGraph.targets;
+        CsrGraph transposed = theGraph.transpose();
+        this.inOffsets = transposed.offsets;
+        this.inTargets = transposed.targets;
+        this.used = new long[this.nodeCount];
+        this.heads = new int[instructors + 1];
+        this.next = new int[this.nodeCount];
+        this.previous = new int[this.nodeCount];
+        this.colors = new byte[this.nodeCount];
+    }
+
+    /**
+     * Method to color a graph with at most the given number of instructors.
+     * Throws a NoScheduleException if the heuristic finds no such coloring
+     *
+     * @param theGraph    the graph to color, which must not change meanwhile
+     * @param instructors the number of instructors, from 1 to MAX_INSTRUCTORS
+     * @return the instructor of every node id, from 0 to instructors - 1
+     * @throws NoScheduleException if no coloring was found
+     */
+    public static byte[] color(IGraph theGraph, int instructors) throws NoScheduleException {
+        if (instructors < 1 || instructors > MAX_INSTRUCTORS) {
+            throw new IllegalArgumentException("the number of instructors must be between 1 and "
+                    + MAX_INSTRUCTORS + ": " + instructors);
+        }
+        DsaturColorer colorer = new DsaturColorer(theGraph.freeze(), instructors);
+        if (!colorer.colorAll()) {
+            throw new NoScheduleException();
+        }
+        return colorer.colors;
+    }
+    /*
+    Linear Time O(N + E + k)
+    Sorting the nodes by degree is a counting sort, every node is picked once, and
+    every edge is looked at twice, once from each end, when that end is colored.
+    The highest saturation only drops while looking for a non-empty bucket, and it
+    rises at most once per edge, so the search for the next node is amortized constant.
+     */
+
+    private boolean colorAll() {
+        int[] degrees = new int[this.nodeCount];
+        int maxDegree = 0;
+        for (int id = 0; id < this.nodeCount; id++) {
+            if (Arrays.binarySearch(this.targets, this.offsets[id], this.offsets[id + 1], id) >= 0) {
+                return false; // a lab that conflicts with itself has no instructor
+            }
+            degrees[id] = this.offsets[id + 1] - this.offsets[id] + this.inOffsets[id + 1] - this.inOffsets[id];
+            maxDegree = Math.max(maxDegree, degrees[id]);
+        }
+        // counting sort by degree, pushed so that the highest degree ends up at the head
+        int[] starts = new int[maxDegree + 2];
+        for (int id = 0; id < this.nodeCount; id++) {
+            starts[degrees[id] + 1]++;
+        }
+        for (int d = 0; d <= maxDegree; d++) {
+            starts[d + 1] += starts[d];
+        }
+        int[] byDegree = new int[this.nodeCount];
+        for (int id = 0; id < this.nodeCount; id++) {
+            byDegree[starts[degrees[id]]++] = id;
+        }
+        Arrays.fill(this.heads, -1);
+        for (int id : byDegree) {
+            this.push(id, 0);
+        }
+
+        int saturation = 0; // no bucket above it holds a node
+        for (int colored = 0; colored < this.nodeCount; colored++) {
+            while (this.heads[saturation] == -1) {
+                saturation--;
+            }
+            if (saturation == this.instructors) {
+                return false; // the neighbors of this node already use every instructor
+            }
+            int v = this.heads[saturation];
+            this.remove(v, saturation);
+            int color = Long.numberOfTrailingZeros(~this.used[v]);
+            this.colors[v] = (byte) color;
+            long bit = 1L << color;
+            saturation = Math.max(saturation, this.mark(v, bit, this.offsets, this.targets));
+            saturation = Math.max(saturation, this.mark(v, bit, this.inOffsets, this.inTargets));
+        }
+        return true;
+    }
+
+    /**
+     * Adds the color of v to its uncolored neighbors along one direction of the edges.
+     *
+     * @return the highest saturation a neighbor moved up to, or 0
+     */
+    private int mark(int v, long bit, int[] rowOffsets, int[] rowTargets) {
+        int highest = 0;
+        for (int e = rowOffsets[v]; e < rowOffsets[v + 1]; e++) {
+            int u = rowTargets[e];
+            if (this.previous[u] == -2 || (this.used[u] & bit) != 0) {
+                continue; // u is colored already, or already had a neighbor of this color
+            }
+            int saturation = Long.bitCount(this.used[u]);
+            this.remove(u, saturation);
+            this.used[u] |= bit;
+            this.push(u, saturation + 1);
+            highest = Math.max(highest, saturation + 1);
+        }
+        return highest;
+    }
+
+    private void push(int id, int saturation) {
+        int head = this.heads[saturation];
+        this.next[id] = head;
+        this.previous[id] = -1;
+        if (head != -1) {
+            this.previous[head] = id;
+        }
+        this.heads[saturation] = id;
+    }
+
+    /**
+     * Unlinks a node from its bucket, marking it with previous == -2 until pushed again.
+     */
+    private void remove(int id, int saturation) {
+        int before = this.previous[id];
+        int after = this.next[id];
+        if (before == -1) {
+            this.heads[saturation] = after;
+        } else {
+            this.next[before] = after;
+        }
+        if (after != -1) {
+            this.previous[after] = before;
+        }
+        this.previous[id] = -2;
+    }
+}
@@ -3,18 +3,25 @@ package sol;
 import src.NodeNameExistsException;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.function.IntConsumer;
 
 /**
  * EdgeArrayGraph class that implements the IGraph interface.
+ * The adjacency matrix is bit-packed: every row is a long[] bitset holding 64 columns per word.
+ * Optionally, the transposed matrix is kept as well, so that the predecessors of a node
+ * are read from one row instead of testing one bit in every row.
  */
 public class EdgeArrayGraph implements IGraph {
     String name;
-    ArrayList<ArrayList<Boolean>> arrayGraph; //[ROW[COLS], ROW[COLS], ROW[COLS], ..., ROW[COLS]]
-    HashMap<String, Integer> strToInt;
-    HashMap<Integer, String> intToStr;
+    long[][] arrayGraph; //[ROW[COLS], ROW[COLS], ROW[COLS], ..., ROW[COLS]], 64 columns per long
+    long[][] reverseGraph; // the transposed matrix, row i holding the nodes with an edge to i, or null
+    int size; // number of nodes, the rows past it are spare capacity
+    LabelDictionary labels; // label <-> row/column index
+    long epoch; // bumped by every node or edge that is actually added
+    CsrGraph frozen; // the last result of freeze(), or null
+    long frozenEpoch; // the epoch frozen was built at
 
 
     /**
@@ -24,10 +31,23 @@ public class EdgeArrayGraph implements IGraph {
      * @param name
      */
     public EdgeArrayGraph(String name) {
+        this(name, false);
+    }
+
+    /**
+     * Constructor of the EdgeArrayGraph class.
+     * It sets the name of the Graph using the @param and initializes instance variables.
+     *
+     * @param name
+     * @param indexInEdges true to also keep the transposed matrix, which doubles the memory
+     *                     used but makes predecessor queries as fast as neighbor queries
+     */
+    public EdgeArrayGraph(String name, boolean indexInEdges) {
         this.name = name;
-        this.arrayGraph = new ArrayList<>();
-        this.strToInt = new HashMap<String, Integer>();
-        this.intToStr = new HashMap<Integer, String>();
+        this.arrayGraph = new long[0][];
+        this.reverseGraph = indexInEdges ? new long[0][] : null;
+        this.size = 0;
+        this.labels = new LabelDictionary();
     }
 
     /**
@@ -39,15 +59,8 @@ public class EdgeArrayGraph implements IGraph {
      *                                 associated with a node in the graph
      */
     public void addNode(String descr) throws NodeNameExistsException {
-        if (!this.strToInt.containsKey(descr)) {
-            ArrayList row = new ArrayList<>();
-            this.arrayGraph.add(row);
-            this.intToStr.put(this.intToStr.size(), descr);
-            this.strToInt.put(descr, this.strToInt.size());
-            for(int i=0 ; i<this.strToInt.size() ; i++)
-                row.add(i, false);
-            for(int i=0 ; i<this.strToInt.size() - 1; i++)
-                this.arrayGraph.get(i).add(false);
+        if (this.labels.idOf(descr) == -1) {
+            this.addNodeUnchecked(descr);
         } else {
             throw new NodeNameExistsException();
         }
@@ -60,19 +73,64 @@ public class EdgeArrayGraph implements IGraph {
      * we already know the node doesn't exist.
      *
      * @param descr the text description or label to associate with the node
-     * @return the (new) node associated with the given description
+     * @return the id of the node associated with the given description
      */
-    private void addNodeUnchecked(String descr) {
-        if (!this.strToInt.containsKey(descr)) {
-            ArrayList row = new ArrayList<>();
-            this.arrayGraph.add(row);
-            this.intToStr.put(this.intToStr.size(), descr);
-            this.strToInt.put(descr, this.strToInt.size() );
-            for(int i=0 ; i<this.strToInt.size() ; i++)
-                row.add(i, false);
-            for(int i=0 ; i<this.strToInt.size() - 1; i++)
-                this.arrayGraph.get(i).add(false);
+    private int addNodeUnchecked(String descr) {
+        int id = this.labels.intern(descr);
+        if (id == this.size) {
+            if (this.size == this.arrayGraph.length) {
+                this.grow();
+            }
+            this.size++;
+            this.epoch++;
         }
+        return id;
+    }
+
+    /**
+     * An internal method to double the capacity of the matrix. Every existing row is
+     * widened and new empty rows are allocated, so adding N nodes costs O(N^2 / 64)
+     * words in total instead of touching every row on each insertion.
+     */
+    private void grow() {
+        int capacity = Math.max(64, this.arrayGraph.length * 2);
+        this.arrayGraph = this.widen(this.arrayGraph, capacity);
+        if (this.reverseGraph != null) {
+            this.reverseGraph = this.widen(this.reverseGraph, capacity);
+        }
+    }
+
+    /**
+     * An internal method to copy a matrix into a square matrix of the given capacity.
+     */
+    private long[][] widen(long[][] matrix, int capacity) {
+        int words = capacity >>> 6;
+        long[][] newGraph = new long[capacity][];
+        for (int i = 0; i < capacity; i++) {
+            newGraph[i] = i < this.size ? Arrays.copyOf(matrix[i], words) : new long[words];
+        }
+        return newGraph;
+    }
+
+    /**
+     * An internal method to set the bit of the edge from row to col.
+     */
+    private void setEdge(int row, int col) {
+        if (this.hasEdge(row, col)) {
+            return;
+        }
+        this.epoch++;
+        this.arrayGraph[row][col >>> 6] |= 1L << col;
+        if (this.reverseGraph != null) {
+            this.reverseGraph[col][row >>> 6] |= 1L << row;
+        }
+    }
+
+    /**
+     * An internal method to test the bit of the edge from row to col.
+     */
+    private boolean hasEdge(int row, int col) {
+        return (this.arrayGraph[row][col >>> 6] & (1L << col)) != 0;
     }
 
 
@@ -87,11 +145,9 @@ public class EdgeArrayGraph implements IGraph {
      * @param descr2 the target node for the edge
      */
     public void addDirectedEdge(String descr1, String descr2) {
-        this.addNodeUnchecked(descr1);
-        this.addNodeUnchecked(descr2);
-        int row = this.strToInt.get(descr1);
-        int col = this.strToInt.get(descr2);
-        this.arrayGraph.get(row).set(col, true);
+        int row = this.addNodeUnchecked(descr1);
+        int col = this.addNodeUnchecked(descr2);
+        this.setEdge(row, col);
     }
 
     /**
@@ -105,14 +161,32 @@ public class EdgeArrayGraph implements IGraph {
      * @param descr2 the target node for the edge
      */
     public void addUndirectedEdge(String descr1, String descr2) {
-        this.addNodeUnchecked(descr1);
-        this.addNodeUnchecked(descr2);
-        int row1 = this.strToInt.get(descr1);
-        int col1 = this.strToInt.get(descr2);
-        this.arrayGraph.get(row1).set(col1, true);
-        int row2 = this.strToInt.get(descr2);
-        int col2 = this.strToInt.get(descr1);
-        this.arrayGraph.get(row2).set(col2, true);
+        int row = this.addNodeUnchecked(descr1);
+        int col = this.addNodeUnchecked(descr2);
+        this.setEdge(row, col);
+        this.setEdge(col, row);
+    }
+
+    /**
+     * Method to add every edge of a batch. The labels of the whole batch are
+     * resolved first, so the matrix grows at most once per doubling for the
+     * batch, and the bits are then set in a tight loop over the ids.
+     *
+     * @param batch the edges to add
+     */
+    public void addEdges(EdgeBatch batch) {
+        int[] rows = new int[batch.size];
+        int[] cols = new int[batch.size];
+        for (int i = 0; i < batch.size; i++) {
+            rows[i] = this.addNodeUnchecked(batch.sources[i]);
+            cols[i] = this.addNodeUnchecked(batch.targets[i]);
+        }
+        for (int i = 0; i < batch.size; i++) {
+            this.setEdge(rows[i], cols[i]);
+            if (!batch.directed[i]) {
+                this.setEdge(cols[i], rows[i]);
+            }
+        }
     }
 
     /**
@@ -122,8 +196,8 @@ public class EdgeArrayGraph implements IGraph {
      */
     public int countSelfEdges() {
         int counter = 0;
-        for (int i = 0; i < this.arrayGraph.size(); i++) {
-            if (this.arrayGraph.get(i).get(i)) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.hasEdge(i, i)) {
                 counter++;
             }
         }
@@ -133,7 +207,7 @@ public class EdgeArrayGraph implements IGraph {
     Linear Time O(N)
     The runtime depends on the number of "cities" (N) in the arrayGraph data structure.
     There is a for loop that will run N times. For each iteration constant time operations are performed,
-    getting an element from a specific position in an ArrayList.
+    testing the diagonal bit of a row.
      */
 
 
@@ -145,36 +219,125 @@ public class EdgeArrayGraph implements IGraph {
      * @return true if fromNodeLabel has an edge to every other node, otherwise false
      */
     public boolean reachesAllOthers(String fromNodeLabel) {
-        int row = this.strToInt.get(fromNodeLabel);
-        for (int i = 0; i < this.arrayGraph.size(); i++) {
-            if (!this.arrayGraph.get(row).get(i) && row != i) {
+        int row = this.labels.idOf(fromNodeLabel);
+        long[] bits = this.arrayGraph[row];
+        int fullWords = this.size >>> 6;
+        for (int w = 0; w < fullWords; w++) {
+            long expected = w == row >>> 6 ? ~(1L << row) : -1L;
+            if ((bits[w] & expected) != expected) {
                 return false;
             }
         }
+        int rest = this.size & 63;
+        if (rest != 0) {
+            long expected = (1L << rest) - 1;
+            if (fullWords == row >>> 6) {
+                expected &= ~(1L << row);
+            }
+            return (bits[fullWords] & expected) == expected;
+        }
         return true;
     }
     /*
-    Linear Time O(N)
+    Linear Time O(N / 64)
     The runtime depends on the number of "cities" (N) in the arrayGraph data structure.
-    First we get an element from a HashMap which is constant time.
-    Then, there is a for loop that will run N times. For each iteration constant time operations are performed,
-    getting an element from a specific position in an ArrayList.
+    First we look the label up in the LabelDictionary which is constant time.
+    Then, the row is compared 64 columns at a time against a mask of the expected edges,
+    so the loop runs N / 64 times and stops at the first word with a missing edge.
      */
 
     @Override
     public LinkedList<String> getNeighbors(String checkNode) {
-        LinkedList stringList = new LinkedList<>();
-        int row = this.strToInt.get(checkNode);
-        for (int i = 0; i<this.arrayGraph.size(); i++){
-            if(this.arrayGraph.get(row).get(i))
-                stringList.add(this.intToStr.get(i));
-        }
+        LinkedList<String> stringList = new LinkedList<>();
+        this.forEachNeighbor(this.labels.idOf(checkNode), id -> stringList.add(this.labels.labelOf(id)));
+        return stringList;
+    }
+
+    @Override
+    public LinkedList<String> getPredecessors(String checkNode) {
+        LinkedList<String> stringList = new LinkedList<>();
+        this.forEachPredecessor(this.labels.idOf(checkNode), id -> stringList.add(this.labels.labelOf(id)));
         return stringList;
     }
 
     @Override
     public ArrayList<String> getAllNodes(){
-        return new ArrayList<>(this.strToInt.keySet());
+        ArrayList<String> allNodes = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            allNodes.add(this.labels.labelOf(i));
+        }
+        return allNodes;
+    }
+
+    @Override
+    public int nodeCount() {
+        return this.size;
+    }
+
+    @Override
+    public int idOf(String label) {
+        return this.labels.idOf(label);
+    }
+
+    @Override
+    public String labelOf(int id) {
+        return this.labels.labelOf(id);
+    }
+
+    @Override
+    public long modificationEpoch() {
+        return this.epoch;
+    }
+
+    @Override
+    public CsrGraph freeze() {
+        if (this.frozen == null || this.frozenEpoch != this.epoch) {
+            this.frozen = new CsrGraph(this.name, this);
+            this.frozenEpoch = this.epoch;
+        }
+        return this.frozen;
+    }
+
+    @Override
+    public void forEachNeighbor(int id, IntConsumer action) {
+        this.forEachBit(this.arrayGraph[id], action);
+    }
+
+    @Override
+    public void forEachPredecessor(int id, IntConsumer action) {
+        if (this.reverseGraph != null) {
+            this.forEachBit(this.reverseGraph[id], action);
+            return;
+        }
+        for (int row = 0; row < this.size; row++) {
+            if (this.hasEdge(row, id)) {
+                action.accept(row);
+            }
+        }
+    }
+
+    @Override
+    public boolean indexesInEdges() {
+        return this.reverseGraph != null;
+    }
+    /*
+    Linear Time O(N / 64) with the in-edge index, O(N) without it
+    With the index the transposed row is scanned 64 columns at a time, like forEachNeighbor.
+    Without it the column of the node is read one bit from every row.
+     */
+
+    /**
+     * An internal method to pass the index of every set bit of a row, in increasing order.
+     */
+    private void forEachBit(long[] bits, IntConsumer action) {
+        int words = (this.size + 63) >>> 6;
+        for (int w = 0; w < words; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                action.accept((w << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
     }
 
 }
@@ -0,0 +1,69 @@
+package sol;
+
+/**
+ * EdgeBatch class. A fixed size buffer of edges that is handed to
+ * IGraph.addEdges as a whole, so that a graph can insert many edges with a
+ * single call. Labels and directions are kept in parallel arrays.
+ */
+public class EdgeBatch {
+    final String[] sources;
+    final String[] targets;
+    final boolean[] directed;
+    int size;
+
+
+    /**
+     * Constructor of the EdgeBatch class.
+     *
+     * @param capacity the number of edges the batch can hold
+     */
+    public EdgeBatch(int capacity) {
+        this.sources = new String[capacity];
+        this.targets = new String[capacity];
+        this.directed = new boolean[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * Method to add an edge to the batch. Assumes that the batch is not full.
+     *
+     * @param descr1   the source node for the edge
+     * @param descr2   the target node for the edge
+     * @param directed false if the edge also goes from descr2 to descr1
+     */
+    public void add(String descr1, String descr2, boolean directed) {
+        this.sources[this.size] = descr1;
+        this.targets[this.size] = descr2;
+        this.directed[this.size] = directed;
+        this.size++;
+    }
+
+    /**
+     * Method to get the number of edges in the batch.
+     *
+     * @return the number of edges
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Method to check whether the batch has room for another edge.
+     *
+     * @return true if no more edges can be added, otherwise false
+     */
+    public boolean isFull() {
+        return this.size == this.sources.length;
+    }
+
+    /**
+     * Method to empty the batch so it can be filled again.
+     */
+    public void clear() {
+        for (int i = 0; i < this.size; i++) {
+            this.sources[i] = null;
+            this.targets[i] = null;
+        }
+        this.size = 0;
+    }
+}
@@ -0,0 +1,195 @@
+package sol;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * GraphMetrics class. It counts the calls to the route and schedule operations of
+ * GraphUtils and Scheduler, and keeps a latency histogram for each of them.
+ * Counters are LongAdders, which spread concurrent increments over striped cells,
+ * so threads querying at the same time do not contend on one cache line. Bucket i
+ * of a histogram counts the calls that took from 2^i to 2^(i+1) - 1 nanoseconds,
+ * so recording a latency is one leading-zero count and one increment.
+ * Metrics are off unless the system property sol.metrics is true or setEnabled is
+ * called; while off, an operation only reads one volatile flag.
+ * Every call is also a JDK Flight Recorder event (sol.RouteQuery or
+ * sol.ScheduleOperation), which costs nothing unless a recording enables it.
+ */
+public final class GraphMetrics {
+    public static final int BUCKETS = 64;
+    static final long NOT_TIMED = Long.MIN_VALUE;
+
+    /**
+     * The operations that are counted.
+     */
+    public enum Operation {
+        HAS_ROUTE, // hasRoute, on a graph, a ReachabilityIndex or a RouteCache
+        GET_ROUTE, // getRoute on a graph or an index, getRouteBidirectional, getWeightedRoute, getRouteWeight
+        FIND_SCHEDULE,
+        CHECK_VALIDITY // checkValidity, and checkValidityBatch as one call over all its labs
+    }
+
+    private static final class Counters {
+        final LongAdder calls = new LongAdder();
+        final LongAdder successes = new LongAdder();
+        final LongAdder nodesVisited = new LongAdder();
+        final LongAdder edgesScanned = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAdder[] latencies = new LongAdder[BUCKETS];
+
+        Counters() {
+            for (int i = 0; i < BUCKETS; i++) {
+                this.latencies[i] = new LongAdder();
+            }
+        }
+    }
+
+    private static final Counters[] COUNTERS = new Counters[Operation.values().length];
+    private static volatile boolean enabled = Boolean.getBoolean("sol.metrics");
+
+    static {
+        for (int i = 0; i < COUNTERS.length; i++) {
+            COUNTERS[i] = new Counters();
+        }
+    }
+
+    private GraphMetrics() {
+    }
+
+    /**
+     * Method to turn the counters on or off. Counts are kept while off.
+     *
+     * @param on true to count every operation from now on
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /**
+     * Method to check whether the counters are on.
+     *
+     * @return true if operations are counted
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Method to set every counter and histogram back to zero.
+     */
+    public static void reset() {
+        for (Counters counters : COUNTERS) {
+            counters.calls.reset();
+            counters.successes.reset();
+            counters.nodesVisited.reset();
+            counters.edgesScanned.reset();
+            counters.totalNanos.reset();
+            for (LongAdder latency : counters.latencies) {
+                latency.reset();
+            }
+        }
+    }
+
+    /**
+     * Method to get the number of calls to an operation.
+     *
+     * @param operation the operation
+     * @return the calls counted
+     */
+    public static long getCalls(Operation operation) {
+        return COUNTERS[operation.ordinal()].calls.sum();
+    }
+
+    /**
+     * Method to get the number of calls to an operation that found a route or a
+     * schedule, or that judged an allocation valid.
+     *
+     * @param operation the operation
+     * @return the successful calls counted
+     */
+    public static long getSuccesses(Operation operation) {
+        return COUNTERS[operation.ordinal()].successes.sum();
+    }
+
+    /**
+     * Method to get the number of nodes the calls to an operation visited: the
+     * nodes a route search reached or settled, or the labs a schedule operation
+     * assigned or checked. Queries answered by an index or a cache without a search
+     * visit none.
+     *
+     * @param operation the operation
+     * @return the nodes visited
+     */
+    public static long getNodesVisited(Operation operation) {
+        return COUNTERS[operation.ordinal()].nodesVisited.sum();
+    }
+
+    /**
+     * Method to get the number of edges the route searches of an operation looked at.
+     * Schedule operations and searches run by ParallelBfs do not count edges.
+     *
+     * @param operation the operation
+     * @return the edges scanned
+     */
+    public static long getEdgesScanned(Operation operation) {
+        return COUNTERS[operation.ordinal()].edgesScanned.sum();
+    }
+
+    /**
+     * Method to get the time spent in all calls to an operation.
+     *
+     * @param operation the operation
+     * @return the total in nanoseconds
+     */
+    public static long getTotalNanos(Operation operation) {
+        return COUNTERS[operation.ordinal()].totalNanos.sum();
+    }
+
+    /**
+     * Method to get the latency histogram of an operation. Entry i counts the calls
+     * that took from 2^i to 2^(i+1) - 1 nanoseconds; entry 0 also counts faster calls.
+     *
+     * @param operation the operation
+     * @return a copy of the BUCKETS counts
+     */
+    public static long[] getLatencyHistogram(Operation operation) {
+        LongAdder[] latencies = COUNTERS[operation.ordinal()].latencies;
+        long[] histogram = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = latencies[i].sum();
+        }
+        return histogram;
+    }
+
+    /**
+     * Starts timing an operation.
+     *
+     * @return the current time, or NOT_TIMED while the counters are off
+     */
+    static long start() {
+        return enabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * Counts one call to an operation that was started at the given time.
+     */
+    static void record(Operation operation, long start, boolean success, long nodesVisited, long edgesScanned) {
+        if (start == NOT_TIMED) {
+            return;
+        }
+        long nanos = Math.max(1, System.nanoTime() - start);
+        Counters counters = COUNTERS[operation.ordinal()];
+        counters.calls.increment();
+        if (success) {
+            counters.successes.increment();
+        }
+        counters.nodesVisited.add(nodesVisited);
+        counters.edgesScanned.add(edgesScanned);
+        counters.totalNanos.add(nanos);
+        counters.latencies[63 - Long.numberOfLeadingZeros(nanos)].increment();
+    }
+    /*
+    Constant Time O(1)
+    Each counter is one LongAdder increment, and the histogram bucket is the position
+    of the highest set bit of the latency.
+     */
+}
@@ -0,0 +1,151 @@
+package sol;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * GraphSnapshot class. It writes any IGraph to a compact binary file and reopens
+ * such a file as a read-only MappedGraph, with no parsing or deserialization.
+ *
+ * The file is a sequence of big-endian sections, each starting on an int boundary:
+ *   header       MAGIC, VERSION, nodeCount, edgeCount, hashSlots, labelByteCount
+ *   labelOffsets int[nodeCount + 1], byte offsets of every label in labelBytes
+ *   hashTable    int[hashSlots], open-addressing label index holding id + 1, or 0 if empty
+ *   offsets      int[nodeCount + 1], compressed sparse row offsets as in CsrGraph
+ *   targets      int[edgeCount], every row sorted by id
+ *   inOffsets    int[nodeCount + 1], the offsets of the transposed graph, for predecessor queries
+ *   inTargets    int[edgeCount], the rows of the transposed graph, every row sorted by id
+ *   labelBytes   byte[labelByteCount], the UTF-8 labels back to back
+ * A single mapping is limited to 2 GB, which bounds a snapshot to roughly 250M edges.
+ * Version 1 files, which had no transposed sections, are rejected.
+ */
+public class GraphSnapshot {
+    static final int MAGIC = 0x4947534E; // "IGSN"
+    static final int VERSION = 2;
+    static final int HEADER_INTS = 6;
+
+    /**
+     * Method to write a graph to a snapshot file, replacing the file if it exists.
+     *
+     * @param theGraph the graph to write
+     * @param file     the file to write to
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(IGraph theGraph, Path file) throws IOException {
+        CsrGraph csr = theGraph.freeze();
+        int nodeCount = csr.nodeCount();
+        byte[][] labels = new byte[nodeCount][];
+        int[] labelOffsets = new int[nodeCount + 1];
+        for (int i = 0; i < nodeCount; i++) {
+            labels[i] = csr.labelOf(i).getBytes(StandardCharsets.UTF_8);
+            labelOffsets[i + 1] = labelOffsets[i] + labels[i].length;
+        }
+        int hashSlots = Integer.highestOneBit(Math.max(1, nodeCount) * 2) * 2;
+        int[] hashTable = new int[hashSlots];
+        for (int i = 0; i < nodeCount; i++) {
+            int slot = hash(labels[i], 0, labels[i].length) & (hashSlots - 1);
+            while (hashTable[slot] != 0) {
+                slot = (slot + 1) & (hashSlots - 1);
+            }
+            hashTable[slot] = i + 1;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(nodeCount);
+            out.writeInt(csr.edgeCount());
+            out.writeInt(hashSlots);
+            out.writeInt(labelOffsets[nodeCount]);
+            writeInts(out, labelOffsets);
+            writeInts(out, hashTable);
+            writeInts(out, csr.offsets);
+            writeInts(out, csr.targets);
+            CsrGraph transposed = csr.transpose();
+            writeInts(out, transposed.offsets);
+            writeInts(out, transposed.targets);
+            for (byte[] label : labels) {
+                out.write(label);
+            }
+        }
+    }
+
+    /**
+     * Method to map a snapshot file as a read-only graph. The graph can be queried
+     * as soon as this returns; pages are loaded by the operating system on first use.
+     *
+     * @param file the snapshot file
+     * @return the mapped graph
+     * @throws IOException if the file cannot be mapped or is not a snapshot
+     */
+    public static MappedGraph open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER_INTS * 4 || buffer.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a graph snapshot");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException(file + " has unsupported snapshot version " + buffer.getInt(4));
+            }
+            checkSections(file, buffer);
+            return new MappedGraph(file.getFileName().toString(), buffer);
+        }
+    }
+
+    /**
+     * Checks that the header describes sections that fit in the file, and that the
+     * offset arrays end where their sections do, so that a truncated or corrupted
+     * file fails here rather than with an IndexOutOfBoundsException on a later query.
+     *
+     * @throws IOException if the sections do not match the header
+     */
+    private static void checkSections(Path file, MappedByteBuffer buffer) throws IOException {
+        int nodeCount = buffer.getInt(8);
+        int edgeCount = buffer.getInt(12);
+        int hashSlots = buffer.getInt(16);
+        int labelByteCount = buffer.getInt(20);
+        if (nodeCount < 0 || edgeCount < 0 || labelByteCount < 0
+                || hashSlots <= nodeCount || Integer.bitCount(hashSlots) != 1) {
+            throw new IOException(file + " has a corrupted snapshot header");
+        }
+        long ints = HEADER_INTS + 3L * (nodeCount + 1) + hashSlots + 2L * edgeCount;
+        if (buffer.limit() < ints * 4 + labelByteCount) {
+            throw new IOException(file + " is truncated: the header needs " + (ints * 4 + labelByteCount)
+                    + " bytes but the file has " + buffer.limit());
+        }
+        // the last entry of every offsets section, in int positions
+        long labelOffsetsEnd = HEADER_INTS + nodeCount;
+        long offsetsEnd = labelOffsetsEnd + hashSlots + nodeCount + 1;
+        long inOffsetsEnd = offsetsEnd + edgeCount + nodeCount + 1;
+        if (buffer.getInt((int) (labelOffsetsEnd * 4)) != labelByteCount
+                || buffer.getInt((int) (offsetsEnd * 4)) != edgeCount
+                || buffer.getInt((int) (inOffsetsEnd * 4)) != edgeCount) {
+            throw new IOException(file + " has sections that do not match its header");
+        }
+    }
+
+    /**
+     * Hash of a UTF-8 label, shared by the writer and MappedGraph.idOf.
+     */
+    static int hash(byte[] bytes, int from, int to) {
+        int h = 0x811C9DC5;
+        for (int i = from; i < to; i++) {
+            h = (h ^ bytes[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+}
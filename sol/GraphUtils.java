@@ -3,14 +3,27 @@ package sol;
 import src.NoRouteException;
 
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
 
 
 /**
  * GraphUtils class.
  */
 public class GraphUtils {
+    // the traversal engines keep their arrays between calls, one engine per thread
+    static final ThreadLocal<BfsEngine> ENGINE = ThreadLocal.withInitial(BfsEngine::new);
+    static final ThreadLocal<DijkstraEngine> WEIGHTED_ENGINE = ThreadLocal.withInitial(DijkstraEngine::new);
+
+    /**
+     * The direction in which a search follows the edges of a graph.
+     * FORWARD goes from the source of every edge to its target, BACKWARD from its
+     * target to its source, so a BACKWARD route from a lab lists the labs that lead to it.
+     */
+    public enum Direction {
+        FORWARD,
+        BACKWARD
+    }
 
     /**
      * Constructor of the GraphUtils class.
@@ -28,23 +41,111 @@ public class GraphUtils {
      * @return boolean indicating whether such a route exists
      */
     public static boolean hasRoute(IGraph theGraph, String fromNodeLabel, String toNodeLabel) {
-        // set up and initialize data structures
-        HashSet<String> visited = new HashSet<>();
-        LinkedList<String> toCheck = new LinkedList<>();
-
-        toCheck.add(fromNodeLabel);
-
-        // process nodes to search for toNode
-        while (!toCheck.isEmpty()) {
-            String checkNode = toCheck.pop();
-            if (checkNode.equals(toNodeLabel)) {
-                return true;
-            } else if (!visited.contains(checkNode)) {
-                visited.add(checkNode);
-                toCheck.addAll(theGraph.getNeighbors(checkNode));
-            }
+        return hasRoute(theGraph, fromNodeLabel, toNodeLabel, Direction.FORWARD);
+    }
+
+    /**
+     * Method to use breadth-first-search to check whether there is a path
+     *     from one node to another in a graph, following the edges in the given
+     *     direction. Searching BACKWARD costs the same as FORWARD when theGraph
+     *     indexes its in-edges; otherwise the search runs on theGraph.freeze(),
+     *     whose transpose is built once for as long as theGraph does not change.
+     *     Assumes that both fromNodeLabel and toNodeLabel are valid node labels in theGraph.
+     *
+     * @param theGraph the graph to traverse
+     * @param fromNodeLabel name of the node from which to start searching
+     * @param toNodeLabel   name of the node we want to reach
+     * @param direction     the direction in which to follow the edges
+     * @return boolean indicating whether such a route exists
+     */
+    public static boolean hasRoute(IGraph theGraph, String fromNodeLabel, String toNodeLabel,
+                                   Direction direction) {
+        RouteQueryEvent event = new RouteQueryEvent();
+        event.begin();
+        long start = GraphMetrics.start();
+        int visited = 0; // the counts of the search, if one ran
+        long scanned = 0;
+        boolean found;
+        int from = theGraph.idOf(fromNodeLabel);
+        int to = theGraph.idOf(toNodeLabel);
+        if (fromNodeLabel.equals(toNodeLabel)) {
+            found = true;
+        } else if (from == -1 || to == -1) {
+            found = false;
+        } else if (ParallelBfs.isWorthwhile(theGraph)) {
+            found = parallelRoute((CsrGraph) theGraph, from, to, direction) != null;
+            visited = ParallelBfs.lastVisitedCount();
+        } else {
+            BfsEngine engine = ENGINE.get();
+            found = engine.reaches(searchable(theGraph, direction == Direction.BACKWARD), from, to,
+                    direction == Direction.BACKWARD);
+            visited = engine.lastVisitedCount();
+            scanned = engine.lastScannedCount();
+        }
+        record(GraphMetrics.Operation.HAS_ROUTE, event, start, fromNodeLabel, toNodeLabel, found, visited, scanned);
+        return found;
+    }
+
+    /**
+     * Method to check whether there is a path from one node to another with a
+     *     precomputed ReachabilityIndex, which takes constant time when the index
+     *     fits its memory budget. Unknown labels have no route.
+     *
+     * @param index the reachability index of the graph to query
+     * @param fromNodeLabel name of the node from which to start searching
+     * @param toNodeLabel   name of the node we want to reach
+     * @return boolean indicating whether such a route exists
+     */
+    public static boolean hasRoute(ReachabilityIndex index, String fromNodeLabel, String toNodeLabel) {
+        RouteQueryEvent event = new RouteQueryEvent();
+        event.begin();
+        long start = GraphMetrics.start();
+        BfsEngine engine = ENGINE.get();
+        engine.resetCounts(); // the index only searches when it has no rows
+        boolean found;
+        int from = index.getGraph().idOf(fromNodeLabel);
+        int to = index.getGraph().idOf(toNodeLabel);
+        if (fromNodeLabel.equals(toNodeLabel)) {
+            found = true;
+        } else if (from == -1 || to == -1) {
+            found = false;
+        } else {
+            found = index.reaches(from, to);
+        }
+        record(GraphMetrics.Operation.HAS_ROUTE, event, start, fromNodeLabel, toNodeLabel, found,
+                engine.lastVisitedCount(), engine.lastScannedCount());
+        return found;
+    }
+
+    /**
+     * Method to check whether there is a path from one node to another, answering
+     *     from a RouteCache when the same question was asked since the graph last
+     *     changed. Unknown labels have no route.
+     *
+     * @param cache the route cache of the graph to query
+     * @param fromNodeLabel name of the node from which to start searching
+     * @param toNodeLabel   name of the node we want to reach
+     * @return boolean indicating whether such a route exists
+     */
+    public static boolean hasRoute(RouteCache cache, String fromNodeLabel, String toNodeLabel) {
+        RouteQueryEvent event = new RouteQueryEvent();
+        event.begin();
+        long start = GraphMetrics.start();
+        BfsEngine engine = ENGINE.get();
+        engine.resetCounts(); // the cache only searches on a miss
+        boolean found;
+        int from = cache.getGraph().idOf(fromNodeLabel);
+        int to = cache.getGraph().idOf(toNodeLabel);
+        if (fromNodeLabel.equals(toNodeLabel)) {
+            found = true;
+        } else if (from == -1 || to == -1) {
+            found = false;
+        } else {
+            found = cache.reaches(from, to);
         }
-        return false;
+        record(GraphMetrics.Operation.HAS_ROUTE, event, start, fromNodeLabel, toNodeLabel, found,
+                engine.lastVisitedCount(), engine.lastScannedCount());
+        return found;
     }
 
     /**
@@ -61,28 +162,259 @@ public class GraphUtils {
      */
     public static LinkedList<String> getRoute(IGraph theGraph, String fromNodeLabel, String toNodeLabel)
             throws NoRouteException {
-        HashMap<String, String> visitLog = new HashMap();
-        HashSet<String> visited = new HashSet<>();
-        LinkedList<String> toCheck = new LinkedList<>();
-        toCheck.addLast(fromNodeLabel);
-
-        // process nodes to search for toNode
-        while (!toCheck.isEmpty()) {
-            String checkNode = toCheck.poll();
-            if (checkNode.equals(toNodeLabel)) {
-                return pathRetriever(visitLog, fromNodeLabel, toNodeLabel, new LinkedList<String>());
-            } else if (!visited.contains(checkNode)) {
-                for(String neighbour : theGraph.getNeighbors(checkNode)) {
-                    if(!visitLog.containsKey(neighbour)) {
-                        visitLog.put(neighbour, checkNode);
-                        toCheck.addLast(neighbour);
-                    }
-                }
-                visited.add(checkNode);
-
-            }
+        return getRoute(theGraph, fromNodeLabel, toNodeLabel, Direction.FORWARD);
+    }
+
+    /**
+     * Method to produce a sequence of nodes that constitutes a shortest path
+     *     from fromNodeLabel to toNodeLabel, following the edges in the given
+     *     direction. In a BACKWARD route every node has an edge to the node before it.
+     *     A BACKWARD search costs the same as in hasRoute.
+     *     Assumes that both fromNodeLabel and toNodeLabel are valid node labels in theGraph.
+     * Throws a NoRouteException if no such path exists
+     *
+     * @param theGraph the graph to traverse
+     * @param fromNodeLabel the node from which to start searching
+     * @param toNodeLabel   the node we want to reach
+     * @param direction     the direction in which to follow the edges
+     * @return List of nodes in order of the path
+     * @throws NoRouteException if no such path exists
+     */
+    public static LinkedList<String> getRoute(IGraph theGraph, String fromNodeLabel, String toNodeLabel,
+                                              Direction direction) throws NoRouteException {
+        RouteQueryEvent event = new RouteQueryEvent();
+        event.begin();
+        long start = GraphMetrics.start();
+        int visited = 0;
+        long scanned = 0;
+        int[] path;
+        int from = theGraph.idOf(fromNodeLabel);
+        int to = theGraph.idOf(toNodeLabel);
+        if (from == -1 || to == -1) {
+            path = null;
+        } else if (ParallelBfs.isWorthwhile(theGraph)) {
+            path = parallelRoute((CsrGraph) theGraph, from, to, direction);
+            visited = ParallelBfs.lastVisitedCount();
+        } else {
+            BfsEngine engine = ENGINE.get();
+            path = engine.route(searchable(theGraph, direction == Direction.BACKWARD), from, to,
+                    direction == Direction.BACKWARD);
+            visited = engine.lastVisitedCount();
+            scanned = engine.lastScannedCount();
+        }
+        record(GraphMetrics.Operation.GET_ROUTE, event, start, fromNodeLabel, toNodeLabel, path != null,
+                visited, scanned);
+        return toLabels(theGraph, path, fromNodeLabel, toNodeLabel);
+    }
+
+    /**
+     * Counts a route query in GraphMetrics and commits its event, if either is enabled.
+     *
+     * @param visited the nodes the search visited or settled, 0 if the query needed no search
+     * @param scanned the edges the search looked at, 0 if it needed none or did not count them
+     */
+    private static void record(GraphMetrics.Operation operation, RouteQueryEvent event, long start,
+                               String fromNodeLabel, String toNodeLabel, boolean found, int visited,
+                               long scanned) {
+        GraphMetrics.record(operation, start, found, visited, scanned);
+        if (event.shouldCommit()) {
+            event.operation = operation.name();
+            event.from = fromNodeLabel;
+            event.to = toNodeLabel;
+            event.found = found;
+            event.nodesVisited = visited;
+            event.edgesScanned = scanned;
+            event.commit();
         }
-        throw new NoRouteException();
+    }
+
+    /**
+     * Picks the graph a sequential search runs on. Following edges backward in a
+     * graph that does not index its in-edges would scan every node for each
+     * predecessor list, so such a search runs on the frozen copy instead, which
+     * keeps the same ids and reads predecessors from its cached transpose.
+     */
+    private static IGraph searchable(IGraph theGraph, boolean backward) {
+        return backward && !theGraph.indexesInEdges() ? theGraph.freeze() : theGraph;
+    }
+
+    /**
+     * Searches a large CsrGraph with ParallelBfs on the common pool. A BACKWARD
+     * search runs forward over the transpose, which the graph builds once.
+     */
+    private static int[] parallelRoute(CsrGraph theGraph, int from, int to, Direction direction) {
+        CsrGraph searched = direction == Direction.BACKWARD ? theGraph.transpose() : theGraph;
+        return ParallelBfs.route(searched, from, to, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Method to produce a shortest path like getRoute, answering from a RouteCache
+     *     when the same route was asked for since the graph last changed.
+     * Throws a NoRouteException if no such path exists
+     *
+     * @param cache the route cache of the graph to query
+     * @param fromNodeLabel the node from which to start searching
+     * @param toNodeLabel   the node we want to reach
+     * @return List of nodes in order of the path
+     * @throws NoRouteException if no such path exists
+     */
+    public static LinkedList<String> getRoute(RouteCache cache, String fromNodeLabel, String toNodeLabel)
+            throws NoRouteException {
+        RouteQueryEvent event = new RouteQueryEvent();
+        event.begin();
+        long start = GraphMetrics.start();
+        BfsEngine engine = ENGINE.get();
+        engine.resetCounts(); // the cache only searches on a miss
+        IGraph theGraph = cache.getGraph();
+        int from = theGraph.idOf(fromNodeLabel);
+        int to = theGraph.idOf(toNodeLabel);
+        int[] path = from == -1 || to == -1 ? null : cache.route(from, to);
+        record(GraphMetrics.Operation.GET_ROUTE, event, start, fromNodeLabel, toNodeLabel, path != null,
+                engine.lastVisitedCount(), engine.lastScannedCount());
+        return toLabels(theGraph, path, fromNodeLabel, toNodeLabel);
+    }
+
+    /**
+     * Method to produce a shortest path like getRoute with an A* search guided by
+     *     the landmarks of a LandmarkIndex, which settles far fewer nodes than a BFS
+     *     when many routes are asked of the same graph. The route is searched on the
+     *     graph as it was when the index was built.
+     * Throws a NoRouteException if no such path exists
+     *
+     * @param index the landmark index of the graph to query
+     * @param fromNodeLabel the node from which to start searching
+     * @param toNodeLabel   the node we want to reach
+     * @return List of nodes in order of the path
+     * @throws NoRouteException if no such path exists
+     */
+    public static LinkedList<String> getRoute(LandmarkIndex index, String fromNodeLabel, String toNodeLabel)
+            throws NoRouteException {
+        RouteQueryEvent event = new RouteQueryEvent();
+        event.begin();
+        long start = GraphMetrics.start();
+        CsrGraph theGraph = index.getGraph();
+        int from = theGraph.idOf(fromNodeLabel);
+        int to = theGraph.idOf(toNodeLabel);
+        int[] path = null;
+        int visited = 0;
+        long scanned = 0;
+        if (from != -1 && to != -1) {
+            path = index.route(from, to);
+            visited = index.lastSettledCount();
+            scanned = index.lastScannedCount();
+        }
+        record(GraphMetrics.Operation.GET_ROUTE, event, start, fromNodeLabel, toNodeLabel, path != null,
+                visited, scanned);
+        return toLabels(theGraph, path, fromNodeLabel, toNodeLabel);
+    }
+
+    /**
+     * Method to produce a shortest path like getRoute, but searching from both ends
+     *     at once until the two searches meet in the middle. This explores far fewer
+     *     nodes than getRoute when the graph fans out quickly. The backward half
+     *     reads predecessors, so when theGraph does not index its in-edges the search
+     *     runs on theGraph.freeze() and its cached transpose.
+     *     Assumes that both fromNodeLabel and toNodeLabel are valid node labels in theGraph.
+     * Throws a NoRouteException if no such path exists
+     *
+     * @param theGraph the graph to traverse
+     * @param fromNodeLabel the node from which to start searching
+     * @param toNodeLabel   the node we want to reach
+     * @return List of nodes in order of the path
+     * @throws NoRouteException if no such path exists
+     */
+    public static LinkedList<String> getRouteBidirectional(IGraph theGraph, String fromNodeLabel,
+                                                           String toNodeLabel) throws NoRouteException {
+        RouteQueryEvent event = new RouteQueryEvent();
+        event.begin();
+        long start = GraphMetrics.start();
+        BfsEngine engine = ENGINE.get();
+        engine.resetCounts();
+        int from = theGraph.idOf(fromNodeLabel);
+        int to = theGraph.idOf(toNodeLabel);
+        int[] path = from == -1 || to == -1 ? null : engine.bidirectionalRoute(searchable(theGraph, true), from, to);
+        record(GraphMetrics.Operation.GET_ROUTE, event, start, fromNodeLabel, toNodeLabel, path != null,
+                engine.lastVisitedCount(), engine.lastScannedCount());
+        return toLabels(theGraph, path, fromNodeLabel, toNodeLabel);
+    }
+
+    /**
+     * Method to produce a sequence of nodes that constitutes a lightest path
+     *     from fromNodeLabel to toNodeLabel, where a path weighs the sum of the
+     *     weights of its edges, with Dijkstra's algorithm.
+     * Throws a NoRouteException if no such path exists
+     *
+     * @param theGraph the weighted graph to traverse
+     * @param fromNodeLabel the node from which to start searching
+     * @param toNodeLabel   the node we want to reach
+     * @return List of nodes in order of the path
+     * @throws NoRouteException if no such path exists
+     */
+    public static LinkedList<String> getWeightedRoute(IWeightedGraph theGraph, String fromNodeLabel,
+                                                      String toNodeLabel) throws NoRouteException {
+        RouteQueryEvent event = new RouteQueryEvent();
+        event.begin();
+        long start = GraphMetrics.start();
+        DijkstraEngine engine = WEIGHTED_ENGINE.get();
+        int from = theGraph.idOf(fromNodeLabel);
+        int to = theGraph.idOf(toNodeLabel);
+        int[] path = null;
+        int visited = 0;
+        long scanned = 0;
+        if (from != -1 && to != -1) {
+            path = engine.route(theGraph, from, to);
+            visited = engine.lastSettledCount();
+            scanned = engine.lastScannedCount();
+        }
+        record(GraphMetrics.Operation.GET_ROUTE, event, start, fromNodeLabel, toNodeLabel, path != null,
+                visited, scanned);
+        return toLabels(theGraph, path, fromNodeLabel, toNodeLabel);
+    }
+
+    /**
+     * Method to compute the weight of a lightest path from fromNodeLabel to
+     *     toNodeLabel, with Dijkstra's algorithm. Unknown labels have no route.
+     *
+     * @param theGraph the weighted graph to traverse
+     * @param fromNodeLabel the node from which to start searching
+     * @param toNodeLabel   the node we want to reach
+     * @return the sum of the weights along the path, or Double.POSITIVE_INFINITY if no such path exists
+     */
+    public static double getRouteWeight(IWeightedGraph theGraph, String fromNodeLabel, String toNodeLabel) {
+        RouteQueryEvent event = new RouteQueryEvent();
+        event.begin();
+        long start = GraphMetrics.start();
+        DijkstraEngine engine = WEIGHTED_ENGINE.get();
+        int from = theGraph.idOf(fromNodeLabel);
+        int to = theGraph.idOf(toNodeLabel);
+        double weight = Double.POSITIVE_INFINITY;
+        int visited = 0;
+        long scanned = 0;
+        if (from != -1 && to != -1) {
+            weight = engine.distance(theGraph, from, to);
+            visited = engine.lastSettledCount();
+            scanned = engine.lastScannedCount();
+        }
+        record(GraphMetrics.Operation.GET_ROUTE, event, start, fromNodeLabel, toNodeLabel,
+                weight != Double.POSITIVE_INFINITY, visited, scanned);
+        return weight;
+    }
+
+    /**
+     * Method to turn a path of node ids into the list of their labels.
+     *
+     * @throws NoRouteException if path is null
+     */
+    private static LinkedList<String> toLabels(IGraph theGraph, int[] path, String fromNodeLabel,
+                                               String toNodeLabel) throws NoRouteException {
+        if (path == null) {
+            throw new NoRouteException(fromNodeLabel, toNodeLabel);
+        }
+        LinkedList<String> route = new LinkedList<>();
+        for (int id : path) {
+            route.add(theGraph.labelOf(id));
+        }
+        return route;
     }
 
     /**
@@ -96,13 +428,12 @@ public class GraphUtils {
      */
     public static LinkedList<String> pathRetriever(HashMap<String, String> visitLog,
                                                     String fromNodeLabel, String toNodeLabel, LinkedList path) {
-        if(fromNodeLabel.equals(toNodeLabel)) {
-            path.addFirst(fromNodeLabel);
-            return path;
-        }
-        else{
-            path.addFirst(toNodeLabel);
-            return pathRetriever(visitLog, fromNodeLabel, visitLog.get(toNodeLabel), path);
+        String node = toNodeLabel;
+        while (!fromNodeLabel.equals(node)) {
+            path.addFirst(node);
+            node = visitLog.get(node);
         }
+        path.addFirst(fromNodeLabel);
+        return path;
     }
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import src.NodeNameExistsException;
 
 import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.function.IntConsumer;
 
 /**
  * IGraph interface.
@@ -36,6 +37,14 @@ public interface IGraph {
      */
     void addUndirectedEdge (String descr1, String descr2);
 
+    /**
+     * This method takes care of adding every edge of a batch, with the same
+     * effect as adding them one by one in order.
+     *
+     * @param batch
+     */
+    void addEdges(EdgeBatch batch);
+
     /**
      * This method takes care of counting the number of nodes that have
      * an edge to themselves.
@@ -61,10 +70,89 @@ public interface IGraph {
      */
     LinkedList<String> getNeighbors(String checkNode);
 
+    /**
+     * This method takes care of returning all the nodes that point to a given node.
+     * (i.e., all the nodes that have edges to a given node)
+     *
+     * @param checkNode
+     * @return
+     */
+    LinkedList<String> getPredecessors(String checkNode);
+
     /**
      * This method takes care of returning all the nodes a graph contains.
      *
      * @return
      */
     ArrayList<String> getAllNodes();
+
+    /**
+     * This method takes care of returning the number of nodes in the graph.
+     * Every node has a dense int id in [0, nodeCount()).
+     *
+     * @return
+     */
+    int nodeCount();
+
+    /**
+     * This method takes care of returning the int id of a node label.
+     *
+     * @param label
+     * @return the id of the node, or -1 if the label is not in the graph
+     */
+    int idOf(String label);
+
+    /**
+     * This method takes care of returning the label of a node id.
+     *
+     * @param id
+     * @return
+     */
+    String labelOf(int id);
+
+    /**
+     * This method takes care of passing the id of every node a given node points to
+     * to the action, without allocating a list of labels.
+     *
+     * @param id
+     * @param action
+     */
+    void forEachNeighbor(int id, IntConsumer action);
+
+    /**
+     * This method takes care of passing the id of every node that points to a given
+     * node to the action, without allocating a list of labels.
+     *
+     * @param id
+     * @param action
+     */
+    void forEachPredecessor(int id, IntConsumer action);
+
+    /**
+     * This method takes care of telling whether the graph keeps the in-edges of
+     * every node, so that forEachPredecessor costs as much as forEachNeighbor
+     * instead of a scan over every node.
+     *
+     * @return
+     */
+    boolean indexesInEdges();
+
+    /**
+     * This method takes care of returning a counter that changes every time a node
+     * or an edge is added, so that results computed from the graph can tell
+     * whether they are still up to date. Graphs that cannot change always return 0.
+     *
+     * @return
+     */
+    long modificationEpoch();
+
+    /**
+     * This method takes care of returning an immutable copy of the graph, stored
+     * for fast reads and safe to share with any number of threads. Nodes and edges
+     * added afterwards do not show up in the copy. The copy is reused by later
+     * calls for as long as the graph does not change.
+     *
+     * @return
+     */
+    CsrGraph freeze();
 }
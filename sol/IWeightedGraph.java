@@ -0,0 +1,49 @@
+package sol;
+
+/**
+ * IWeightedGraph interface. It is an IGraph whose edges carry a weight, such as
+ * the cost of travelling between two lab rooms. Edges added through the IGraph
+ * methods weigh 1.
+ */
+public interface IWeightedGraph extends IGraph {
+
+    /**
+     * This method takes care of adding a directed edge with a weight, or of
+     * changing the weight of the edge if it already exists.
+     * Weights must be finite and not negative.
+     *
+     * @param descr1
+     * @param descr2
+     * @param weight
+     */
+    void addDirectedEdge(String descr1, String descr2, double weight);
+
+    /**
+     * This method takes care of adding an undirected edge with a weight, as two
+     * directed edges of that weight.
+     *
+     * @param descr1
+     * @param descr2
+     * @param weight
+     */
+    void addUndirectedEdge(String descr1, String descr2, double weight);
+
+    /**
+     * This method takes care of returning the weight of the edge between two
+     * nodes, or NaN if there is no such edge.
+     *
+     * @param descr1
+     * @param descr2
+     * @return
+     */
+    double getWeight(String descr1, String descr2);
+
+    /**
+     * This method takes care of passing the id of every node a given node points to,
+     * with the weight of that edge, to the action, without boxing either.
+     *
+     * @param id
+     * @param action
+     */
+    void forEachWeightedNeighbor(int id, IntDoubleConsumer action);
+}
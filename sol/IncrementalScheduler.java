@@ -0,0 +1,282 @@
+package sol;
+
+import src.NoScheduleException;
+import src.NodeNameExistsException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.function.IntConsumer;
+
+/**
+ * IncrementalScheduler class that implements the IGraph interface.
+ * It wraps another graph and keeps a split of its labs between the two
+ * instructors up to date as edges are added, with a union-find structure whose
+ * links also record whether a lab and its parent go to the same instructor.
+ * Adding an edge, asking whether the graph is still schedulable and asking for
+ * the instructor of a lab all take near-constant (inverse Ackermann) time,
+ * instead of running Scheduler.findSchedule again after every edge.
+ */
+public class IncrementalScheduler implements IGraph {
+    private final IGraph theGraph;
+    private int[] parents; // union-find forest over node ids
+    private byte[] parities; // 1 if a node goes to the other instructor than its parent
+    private int[] ranks;
+    private int size;
+    private String[] firstConflict; // the first edge that closed an odd cycle, or null
+
+
+    /**
+     * Constructor of the IncrementalScheduler class. The edges already in the
+     * graph are taken into account; later edges must be added through this object.
+     *
+     * @param theGraph the graph to schedule
+     */
+    public IncrementalScheduler(IGraph theGraph) {
+        this.theGraph = theGraph;
+        this.parents = new int[16];
+        this.parities = new byte[16];
+        this.ranks = new int[16];
+        this.size = 0;
+        this.addNewNodes();
+        for (int id = 0; id < theGraph.nodeCount(); id++) {
+            int source = id;
+            theGraph.forEachNeighbor(id, target -> this.addConstraint(source, target));
+        }
+    }
+
+    /**
+     * Method to check whether the labs can still be split between the two instructors.
+     *
+     * @return true if no edge added so far closed an odd cycle, otherwise false
+     */
+    public boolean isSchedulable() {
+        return this.firstConflict == null;
+    }
+
+    /**
+     * Method to get the first edge that made the graph impossible to schedule.
+     *
+     * @return the source and target labels of that edge, or null if the graph is schedulable
+     */
+    public String[] getFirstConflict() {
+        return this.firstConflict == null ? null : this.firstConflict.clone();
+    }
+
+    /**
+     * Method to get the instructor a lab is currently assigned to. Labs in
+     * different connected components are assigned independently.
+     * Assumes that lab is a valid node label in the graph.
+     *
+     * @param lab the lab to look up
+     * @return 0 or 1, the index of the instructor in getSchedule()
+     * @throws NoScheduleException if the graph is not schedulable
+     */
+    public int instructorOf(String lab) throws NoScheduleException {
+        if (!this.isSchedulable()) {
+            throw new NoScheduleException();
+        }
+        this.find(this.theGraph.idOf(lab));
+        return this.parities[this.theGraph.idOf(lab)];
+    }
+
+    /**
+     * Method to get the current split of all labs between the two instructors.
+     *
+     * @return an ArrayList of HashSets of node labels that constitute a
+     * valid split of the graph
+     * @throws NoScheduleException if the graph is not schedulable
+     */
+    public ArrayList<HashSet<String>> getSchedule() throws NoScheduleException {
+        if (!this.isSchedulable()) {
+            throw new NoScheduleException();
+        }
+        ArrayList<HashSet<String>> schedule = new ArrayList<>();
+        schedule.add(new HashSet<>());
+        schedule.add(new HashSet<>());
+        for (int id = 0; id < this.size; id++) {
+            this.find(id);
+            schedule.get(this.parities[id]).add(this.theGraph.labelOf(id));
+        }
+        return schedule;
+    }
+
+    /**
+     * Finds the root of a node, pointing every node on the way straight at the
+     * root and turning its parity into the parity relative to the root.
+     *
+     * @return the root of the node
+     */
+    private int find(int id) {
+        int root = id;
+        int parity = 0;
+        while (this.parents[root] != root) {
+            parity ^= this.parities[root];
+            root = this.parents[root];
+        }
+        // second pass: parity holds the parity of the current node relative to the root
+        while (this.parents[id] != root && id != root) {
+            int next = this.parents[id];
+            int nextParity = parity ^ this.parities[id];
+            this.parents[id] = root;
+            this.parities[id] = (byte) parity;
+            id = next;
+            parity = nextParity;
+        }
+        return root;
+    }
+
+    /**
+     * Records that two nodes must go to different instructors.
+     */
+    private void addConstraint(int a, int b) {
+        int rootA = this.find(a);
+        int rootB = this.find(b);
+        // after find, the parity of a node is relative to its root (or 0 for the root itself)
+        int parityA = a == rootA ? 0 : this.parities[a];
+        int parityB = b == rootB ? 0 : this.parities[b];
+        if (rootA == rootB) {
+            if (parityA == parityB && this.firstConflict == null) {
+                this.firstConflict = new String[]{this.theGraph.labelOf(a), this.theGraph.labelOf(b)};
+            }
+            return;
+        }
+        if (this.ranks[rootA] < this.ranks[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        } else if (this.ranks[rootA] == this.ranks[rootB]) {
+            this.ranks[rootA]++;
+        }
+        this.parents[rootB] = rootA;
+        this.parities[rootB] = (byte) (parityA ^ parityB ^ 1);
+    }
+
+    /**
+     * Gives every node the wrapped graph gained since the last call its own set.
+     */
+    private void addNewNodes() {
+        int nodeCount = this.theGraph.nodeCount();
+        if (nodeCount > this.parents.length) {
+            int capacity = Math.max(nodeCount, this.parents.length * 2);
+            this.parents = Arrays.copyOf(this.parents, capacity);
+            this.parities = Arrays.copyOf(this.parities, capacity);
+            this.ranks = Arrays.copyOf(this.ranks, capacity);
+        }
+        for (; this.size < nodeCount; this.size++) {
+            this.parents[this.size] = this.size;
+        }
+    }
+
+    @Override
+    public void addNode(String descr) throws NodeNameExistsException {
+        this.theGraph.addNode(descr);
+        this.addNewNodes();
+    }
+
+    /**
+     * Method to add a directed edge to the wrapped graph and record that its two labs
+     * must go to different instructors.
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     */
+    public void addDirectedEdge(String descr1, String descr2) {
+        this.theGraph.addDirectedEdge(descr1, descr2);
+        this.addNewNodes();
+        this.addConstraint(this.theGraph.idOf(descr1), this.theGraph.idOf(descr2));
+    }
+
+    /**
+     * Method to add an undirected edge to the wrapped graph and record that its two labs
+     * must go to different instructors.
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     */
+    public void addUndirectedEdge(String descr1, String descr2) {
+        this.theGraph.addUndirectedEdge(descr1, descr2);
+        this.addNewNodes();
+        this.addConstraint(this.theGraph.idOf(descr1), this.theGraph.idOf(descr2));
+    }
+
+    /**
+     * Method to add every edge of a batch to the wrapped graph, recording the
+     * constraints in batch order.
+     *
+     * @param batch the edges to add
+     */
+    public void addEdges(EdgeBatch batch) {
+        this.theGraph.addEdges(batch);
+        this.addNewNodes();
+        for (int i = 0; i < batch.size; i++) {
+            this.addConstraint(this.theGraph.idOf(batch.sources[i]), this.theGraph.idOf(batch.targets[i]));
+        }
+    }
+
+    @Override
+    public int countSelfEdges() {
+        return this.theGraph.countSelfEdges();
+    }
+
+    @Override
+    public boolean reachesAllOthers(String fromNodeLabel) {
+        return this.theGraph.reachesAllOthers(fromNodeLabel);
+    }
+
+    @Override
+    public LinkedList<String> getNeighbors(String checkNode) {
+        return this.theGraph.getNeighbors(checkNode);
+    }
+
+    @Override
+    public LinkedList<String> getPredecessors(String checkNode) {
+        return this.theGraph.getPredecessors(checkNode);
+    }
+
+    @Override
+    public ArrayList<String> getAllNodes() {
+        return this.theGraph.getAllNodes();
+    }
+
+    @Override
+    public int nodeCount() {
+        return this.theGraph.nodeCount();
+    }
+
+    @Override
+    public int idOf(String label) {
+        return this.theGraph.idOf(label);
+    }
+
+    @Override
+    public String labelOf(int id) {
+        return this.theGraph.labelOf(id);
+    }
+
+    @Override
+    public void forEachNeighbor(int id, IntConsumer action) {
+        this.theGraph.forEachNeighbor(id, action);
+    }
+
+    @Override
+    public void forEachPredecessor(int id, IntConsumer action) {
+        this.theGraph.forEachPredecessor(id, action);
+    }
+
+    @Override
+    public boolean indexesInEdges() {
+        return this.theGraph.indexesInEdges();
+    }
+
+    @Override
+    public long modificationEpoch() {
+        return this.theGraph.modificationEpoch();
+    }
+
+    @Override
+    public CsrGraph freeze() {
+        return this.theGraph.freeze();
+    }
+}
@@ -0,0 +1,137 @@
+package sol;
+
+import java.util.Arrays;
+
+/**
+ * IndexedMinHeap class. It is a binary min-heap of int ids ordered by a double
+ * key, with an int[] position for every id so that the key of an id already in
+ * the heap can be lowered in place. Ids, keys and positions live in primitive
+ * arrays, so no operation allocates once the heap has grown to the id range.
+ * The arrays are only grown, so a heap can be cleared and reused across searches.
+ */
+class IndexedMinHeap {
+    private int[] heap; // the ids, heap ordered by key
+    private double[] keys; // the key of every id in the heap
+    private int[] positions; // the index in heap of every id, or -1 if it is not in the heap
+    private int size;
+
+
+    /**
+     * Constructor of the IndexedMinHeap class.
+     */
+    IndexedMinHeap() {
+        this.heap = new int[0];
+        this.keys = new double[0];
+        this.positions = new int[0];
+    }
+
+    /**
+     * Method to empty the heap and make room for the ids 0 .. idCount - 1.
+     *
+     * @param idCount the number of ids the heap may hold
+     */
+    void reset(int idCount) {
+        if (this.positions.length < idCount) {
+            int capacity = Math.max(idCount, this.positions.length * 2);
+            this.heap = new int[capacity];
+            this.keys = new double[capacity];
+            this.positions = new int[capacity];
+            Arrays.fill(this.positions, -1);
+        } else {
+            for (int i = 0; i < this.size; i++) {
+                this.positions[this.heap[i]] = -1;
+            }
+        }
+        this.size = 0;
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Method to add an id, or lower its key if it is already in the heap with a higher one.
+     *
+     * @param id  the id to add
+     * @param key its key
+     */
+    void insertOrDecrease(int id, double key) {
+        int i = this.positions[id];
+        if (i == -1) {
+            i = this.size++;
+        } else if (key >= this.keys[id]) {
+            return;
+        }
+        this.keys[id] = key;
+        this.siftUp(i, id);
+    }
+    /*
+    Logarithmic Time O(log N)
+    The id moves up at most the height of the heap.
+     */
+
+    /**
+     * Method to remove the id with the smallest key.
+     *
+     * @return the removed id
+     */
+    int poll() {
+        int top = this.heap[0];
+        this.positions[top] = -1;
+        int last = this.heap[--this.size];
+        if (this.size > 0) {
+            this.siftDown(0, last);
+        }
+        return top;
+    }
+    /*
+    Logarithmic Time O(log N)
+    The last id moves down from the root at most the height of the heap.
+     */
+
+    /**
+     * Method to get the key of the id with the smallest key.
+     *
+     * @return the smallest key
+     */
+    double peekKey() {
+        return this.keys[this.heap[0]];
+    }
+
+    private void siftUp(int i, int id) {
+        double key = this.keys[id];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int parentId = this.heap[parent];
+            if (this.keys[parentId] <= key) {
+                break;
+            }
+            this.place(i, parentId);
+            i = parent;
+        }
+        this.place(i, id);
+    }
+
+    private void siftDown(int i, int id) {
+        double key = this.keys[id];
+        int half = this.size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int childId = this.heap[child];
+            if (child + 1 < this.size && this.keys[this.heap[child + 1]] < this.keys[childId]) {
+                childId = this.heap[++child];
+            }
+            if (key <= this.keys[childId]) {
+                break;
+            }
+            this.place(i, childId);
+            i = child;
+        }
+        this.place(i, id);
+    }
+
+    private void place(int i, int id) {
+        this.heap[i] = id;
+        this.positions[id] = i;
+    }
+}
@@ -0,0 +1,18 @@
+package sol;
+
+/**
+ * IntDoubleConsumer interface. It takes a node id and the weight of the edge
+ * that leads to it, as primitives, so that walking a weighted adjacency does
+ * not box either of them.
+ */
+@FunctionalInterface
+public interface IntDoubleConsumer {
+
+    /**
+     * This method takes care of handling one weighted neighbor.
+     *
+     * @param id
+     * @param weight
+     */
+    void accept(int id, double weight);
+}
@@ -0,0 +1,144 @@
+package sol;
+
+import java.util.Arrays;
+
+/**
+ * LabelDictionary class. It maps node labels to dense int ids 0, 1, 2, ... in
+ * insertion order and back. All labels are stored back to back in one char[],
+ * and the lookup table is an open-addressing int[] of ids probed linearly, so
+ * the dictionary holds no String, boxed Integer or entry object per label.
+ * Labels are only turned back into Strings by labelOf, at the API boundary.
+ */
+public class LabelDictionary {
+    private char[] chars; // every label, back to back
+    private int[] starts; // label id starts at chars[starts[id]] and ends at starts[id + 1]
+    private int[] hashes; // the String hash of every label, kept for probing and resizing
+    private int[] table; // id + 1 of the label in every slot, or 0 if empty
+    private int size;
+
+
+    /**
+     * Constructor of the LabelDictionary class.
+     */
+    public LabelDictionary() {
+        this.chars = new char[256];
+        this.starts = new int[17];
+        this.hashes = new int[16];
+        this.table = new int[32];
+        this.size = 0;
+    }
+
+    /**
+     * Method to get the number of labels in the dictionary.
+     *
+     * @return the number of labels
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Method to get the id of a label.
+     *
+     * @param label the label to look up
+     * @return the id of the label, or -1 if it is not in the dictionary
+     */
+    public int idOf(String label) {
+        int hash = label.hashCode();
+        int mask = this.table.length - 1;
+        for (int slot = mix(hash) & mask; this.table[slot] != 0; slot = (slot + 1) & mask) {
+            int id = this.table[slot] - 1;
+            if (this.hashes[id] == hash && this.labelEquals(id, label)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Method to get the id of a label, adding the label with the next id if it
+     * is not in the dictionary yet.
+     *
+     * @param label the label to look up or add
+     * @return the id of the label
+     */
+    public int intern(String label) {
+        int hash = label.hashCode();
+        int mask = this.table.length - 1;
+        int slot = mix(hash) & mask;
+        for (; this.table[slot] != 0; slot = (slot + 1) & mask) {
+            int id = this.table[slot] - 1;
+            if (this.hashes[id] == hash && this.labelEquals(id, label)) {
+                return id;
+            }
+        }
+        int id = this.append(label, hash);
+        this.table[slot] = id + 1;
+        if (this.size * 2 > this.table.length) {
+            this.rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Method to get the label of an id.
+     *
+     * @param id a label id in [0, size())
+     * @return the label
+     */
+    public String labelOf(int id) {
+        return new String(this.chars, this.starts[id], this.starts[id + 1] - this.starts[id]);
+    }
+
+    private int append(String label, int hash) {
+        int id = this.size;
+        int start = this.starts[id];
+        int end = start + label.length();
+        if (end > this.chars.length) {
+            this.chars = Arrays.copyOf(this.chars, Math.max(end, this.chars.length * 2));
+        }
+        label.getChars(0, label.length(), this.chars, start);
+        if (id + 1 == this.hashes.length) {
+            this.hashes = Arrays.copyOf(this.hashes, this.hashes.length * 2);
+            this.starts = Arrays.copyOf(this.starts, this.hashes.length + 1);
+        }
+        this.hashes[id] = hash;
+        this.starts[id + 1] = end;
+        this.size++;
+        return id;
+    }
+
+    private boolean labelEquals(int id, String label) {
+        int start = this.starts[id];
+        if (this.starts[id + 1] - start != label.length()) {
+            return false;
+        }
+        for (int i = 0; i < label.length(); i++) {
+            if (this.chars[start + i] != label.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        int[] newTable = new int[this.table.length * 2];
+        int mask = newTable.length - 1;
+        for (int id = 0; id < this.size; id++) {
+            int slot = mix(this.hashes[id]) & mask;
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = id + 1;
+        }
+        this.table = newTable;
+    }
+
+    /**
+     * Spreads the String hash so that similar labels do not cluster in the table.
+     */
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,301 @@
+package sol;
+
+import java.util.Arrays;
+
+/**
+ * LandmarkIndex class. It speeds up repeated point-to-point routes with the ALT
+ * technique (A*, landmarks, triangle inequality). A few nodes are chosen as
+ * landmarks, and the hop distance from every landmark to every node and from
+ * every node to every landmark is stored. For any landmark L, the triangle
+ * inequality bounds the distance from v to t from below by
+ *   dist(L, t) - dist(L, v)   and   dist(v, L) - dist(t, L),
+ * so an A* search guided by the largest of these bounds heads for the target and
+ * settles far fewer nodes than a BFS, while still returning a shortest route.
+ * The bounds are consistent, so every node is settled at most once.
+ * Distances that are infinite prune a node outright: if L reaches v but not t,
+ * or t reaches L but v does not, then v cannot reach t.
+ * Landmarks are picked one at a time as the node farthest from those already
+ * picked, which spreads them to the edges of the graph where the bounds are tightest.
+ * The index is a snapshot: queries run on the graph as frozen when it was built,
+ * so it must be rebuilt to see edges added afterwards. It can be shared between threads.
+ */
+public class LandmarkIndex {
+    public static final int DEFAULT_LANDMARKS = 8;
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final CsrGraph theGraph;
+    private final int landmarkCount;
+    private final int[] landmarks;
+    private final int[] fromLandmarks; // fromLandmarks[v * landmarkCount + l]: the hops from landmark l to v
+    private final int[] toLandmarks; // toLandmarks[v * landmarkCount + l]: the hops from v to landmark l
+    private final ThreadLocal<Search> searches;
+
+
+    /**
+     * Constructor of the LandmarkIndex class, with DEFAULT_LANDMARKS landmarks.
+     *
+     * @param theGraph the graph to index
+     */
+    public LandmarkIndex(IGraph theGraph) {
+        this(theGraph, DEFAULT_LANDMARKS);
+    }
+
+    /**
+     * Constructor of the LandmarkIndex class. Every landmark costs two BFS and
+     * 8 bytes per node; more landmarks give tighter bounds.
+     *
+     * @param theGraph  the graph to index
+     * @param landmarks the number of landmarks to pick, at least 1
+     */
+    public LandmarkIndex(IGraph theGraph, int landmarks) {
+        if (landmarks < 1) {
+            throw new IllegalArgumentException("at least one landmark is needed: " + landmarks);
+        }
+        this.theGraph = theGraph.freeze();
+        int nodeCount = this.theGraph.nodeCount();
+        this.landmarkCount = Math.min(landmarks, Math.max(1, nodeCount));
+        this.landmarks = new int[this.landmarkCount];
+        this.fromLandmarks = new int[nodeCount * this.landmarkCount];
+        this.toLandmarks = new int[nodeCount * this.landmarkCount];
+        if (nodeCount > 0) {
+            this.pickLandmarks();
+        }
+        this.searches = ThreadLocal.withInitial(() -> new Search(nodeCount));
+    }
+    /*
+    Time O(L * (N + E)) for L landmarks
+    Every landmark takes a BFS over the graph and one over its transpose, and picking
+    the next landmark is a scan over the N nodes.
+     */
+
+    /**
+     * Picks every landmark as the node farthest from the ones before it, and fills
+     * its distance arrays.
+     */
+    private void pickLandmarks() {
+        int nodeCount = this.theGraph.nodeCount();
+        CsrGraph transposed = this.theGraph.transpose();
+        int[] queue = new int[nodeCount];
+        int[] closest = new int[nodeCount]; // the distance of every node to its nearest landmark, either way
+        Arrays.fill(closest, UNREACHABLE);
+        int next = 0;
+        for (int v = 1; v < nodeCount; v++) {
+            if (this.degree(v) > this.degree(next)) {
+                next = v;
+            }
+        }
+        for (int l = 0; l < this.landmarkCount; l++) {
+            this.landmarks[l] = next;
+            bfs(this.theGraph, next, this.fromLandmarks, this.landmarkCount, l, queue);
+            bfs(transposed, next, this.toLandmarks, this.landmarkCount, l, queue);
+            next = -1;
+            for (int v = 0; v < nodeCount; v++) {
+                int i = v * this.landmarkCount + l;
+                closest[v] = Math.min(closest[v], Math.min(this.fromLandmarks[i], this.toLandmarks[i]));
+                // nodes without edges make useless landmarks, and a landmark is never picked twice
+                if (closest[v] > 0 && this.degree(v) > 0 && (next == -1 || closest[v] > closest[next])) {
+                    next = v;
+                }
+            }
+            if (next == -1) {
+                next = this.landmarks[l];
+            }
+        }
+    }
+
+    private int degree(int v) {
+        return this.theGraph.offsets[v + 1] - this.theGraph.offsets[v];
+    }
+
+    /**
+     * Stores the hops from source to every node in distances[v * stride + slot].
+     */
+    private static void bfs(CsrGraph csr, int source, int[] distances, int stride, int slot, int[] queue) {
+        int[] offsets = csr.offsets;
+        int[] targets = csr.targets;
+        for (int v = 0; v < csr.nodeCount(); v++) {
+            distances[v * stride + slot] = UNREACHABLE;
+        }
+        distances[source * stride + slot] = 0;
+        queue[0] = source;
+        int tail = 1;
+        for (int head = 0; head < tail; head++) {
+            int u = queue[head];
+            int next = distances[u * stride + slot] + 1;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = targets[e];
+                if (distances[v * stride + slot] == UNREACHABLE) {
+                    distances[v * stride + slot] = next;
+                    queue[tail++] = v;
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to get the graph this index answers for, as it was frozen when the index was built.
+     *
+     * @return the indexed snapshot
+     */
+    public CsrGraph getGraph() {
+        return this.theGraph;
+    }
+
+    /**
+     * Method to get the ids of the landmarks, in the order they were picked.
+     *
+     * @return a copy of the landmark ids
+     */
+    public int[] getLandmarks() {
+        return this.landmarks.clone();
+    }
+
+    /**
+     * Method to compute a shortest path from one node id to another with A*.
+     *
+     * @param from the id of the node from which to start searching
+     * @param to   the id of the node we want to reach
+     * @return the ids along the path, from first, or null if no such path exists
+     */
+    public int[] route(int from, int to) {
+        return this.searches.get().route(from, to);
+    }
+
+    /**
+     * Method to get the number of nodes the last route call on this thread settled,
+     * to compare the work of a search with that of a BFS.
+     *
+     * @return the number of nodes settled
+     */
+    public int lastSettledCount() {
+        return this.searches.get().settled;
+    }
+
+    /**
+     * Method to get the number of edges the last route call on this thread looked at.
+     *
+     * @return the number of edges scanned
+     */
+    public long lastScannedCount() {
+        return this.searches.get().scanned;
+    }
+
+    /**
+     * The per-thread state of an A* search. Nodes are stamped with the search
+     * that reached them, so the arrays are not cleared between searches.
+     */
+    private class Search {
+        final int[] hops; // the hops from the source of every reached node
+        final int[] parents;
+        final int[] stamps;
+        final boolean[] closed;
+        final int[] targetFrom; // the landmark distances of the target, copied for locality
+        final int[] targetTo;
+        final IndexedMinHeap heap;
+        int stamp;
+        int settled;
+        long scanned;
+
+        Search(int nodeCount) {
+            this.hops = new int[nodeCount];
+            this.parents = new int[nodeCount];
+            this.stamps = new int[nodeCount];
+            this.closed = new boolean[nodeCount];
+            this.targetFrom = new int[landmarkCount];
+            this.targetTo = new int[landmarkCount];
+            this.heap = new IndexedMinHeap();
+        }
+
+        int[] route(int from, int to) {
+            int nodeCount = theGraph.nodeCount();
+            if (++this.stamp == 0) {
+                Arrays.fill(this.stamps, 0);
+                this.stamp = 1;
+            }
+            this.heap.reset(nodeCount);
+            this.settled = 0;
+            this.scanned = 0;
+            System.arraycopy(fromLandmarks, to * landmarkCount, this.targetFrom, 0, landmarkCount);
+            System.arraycopy(toLandmarks, to * landmarkCount, this.targetTo, 0, landmarkCount);
+            int bound = this.bound(from);
+            if (bound == UNREACHABLE) {
+                return null;
+            }
+            this.reach(from, -1, 0);
+            this.heap.insertOrDecrease(from, bound);
+            int[] offsets = theGraph.offsets;
+            int[] targets = theGraph.targets;
+            while (!this.heap.isEmpty()) {
+                int u = this.heap.poll();
+                this.closed[u] = true;
+                this.settled++;
+                if (u == to) {
+                    return this.pathTo(to);
+                }
+                int next = this.hops[u] + 1;
+                this.scanned += offsets[u + 1] - offsets[u];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    if (this.stamps[v] == this.stamp && (this.closed[v] || this.hops[v] <= next)) {
+                        continue;
+                    }
+                    int remaining = this.bound(v);
+                    if (remaining == UNREACHABLE) {
+                        continue;
+                    }
+                    this.reach(v, u, next);
+                    this.heap.insertOrDecrease(v, next + remaining);
+                }
+            }
+            return null;
+        }
+        /*
+        Time O((N' + E') log N' + N' * L) for the N' nodes and E' edges the search reaches
+        Each reached node gets its bound once per improvement, in O(L), and goes through the heap.
+        With tight bounds N' is a small part of the graph around a shortest route.
+         */
+
+        /**
+         * The largest lower bound on the hops from v to the target, or UNREACHABLE
+         * if some landmark proves that v cannot reach it.
+         */
+        int bound(int v) {
+            int best = 0;
+            int base = v * landmarkCount;
+            for (int l = 0; l < landmarkCount; l++) {
+                int fromL = fromLandmarks[base + l];
+                int toL = toLandmarks[base + l];
+                int targetFromL = this.targetFrom[l];
+                int targetToL = this.targetTo[l];
+                if (fromL != UNREACHABLE) {
+                    if (targetFromL == UNREACHABLE) {
+                        return UNREACHABLE; // L reaches v, so it would reach the target through v
+                    }
+                    best = Math.max(best, targetFromL - fromL);
+                }
+                if (targetToL != UNREACHABLE) {
+                    if (toL == UNREACHABLE) {
+                        return UNREACHABLE; // the target reaches L, so v would reach L through it
+                    }
+                    best = Math.max(best, toL - targetToL);
+                }
+            }
+            return best;
+        }
+
+        void reach(int v, int parent, int hops) {
+            this.stamps[v] = this.stamp;
+            this.closed[v] = false;
+            this.parents[v] = parent;
+            this.hops[v] = hops;
+        }
+
+        int[] pathTo(int to) {
+            int[] path = new int[this.hops[to] + 1];
+            for (int id = to, i = path.length - 1; id != -1; id = this.parents[id], i--) {
+                path[i] = id;
+            }
+            return path;
+        }
+    }
+}
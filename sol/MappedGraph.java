@@ -0,0 +1,272 @@
+package sol;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.function.IntConsumer;
+
+/**
+ * MappedGraph class that implements the IGraph interface.
+ * It is a read-only view of a memory-mapped GraphSnapshot file: edges are read
+ * straight from the mapped rows and label lookups probe the hash table stored in
+ * the file, so nothing is copied onto the heap when the graph is opened.
+ * Only absolute reads are used on the buffers, so a MappedGraph can be queried
+ * from several threads at once.
+ */
+public class MappedGraph implements IGraph {
+    String name;
+    private final ByteBuffer buffer;
+    private final int nodeCount;
+    private final int hashSlots;
+    private final IntBuffer labelOffsets;
+    private final IntBuffer hashTable;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final IntBuffer inOffsets;
+    private final IntBuffer inTargets;
+    private final int labelBase; // byte position of labelBytes in the buffer
+    private volatile CsrGraph frozen; // built on first use by freeze()
+
+
+    /**
+     * Constructor of the MappedGraph class. GraphSnapshot.open checks the header first.
+     *
+     * @param name   the name of the graph
+     * @param buffer the mapped snapshot file
+     */
+    MappedGraph(String name, ByteBuffer buffer) {
+        this.name = name;
+        this.buffer = buffer;
+        this.nodeCount = buffer.getInt(8);
+        int edgeCount = buffer.getInt(12);
+        this.hashSlots = buffer.getInt(16);
+        int position = GraphSnapshot.HEADER_INTS;
+        this.labelOffsets = section(buffer, position, this.nodeCount + 1);
+        position += this.nodeCount + 1;
+        this.hashTable = section(buffer, position, this.hashSlots);
+        position += this.hashSlots;
+        this.offsets = section(buffer, position, this.nodeCount + 1);
+        position += this.nodeCount + 1;
+        this.targets = section(buffer, position, edgeCount);
+        position += edgeCount;
+        this.inOffsets = section(buffer, position, this.nodeCount + 1);
+        position += this.nodeCount + 1;
+        this.inTargets = section(buffer, position, edgeCount);
+        position += edgeCount;
+        this.labelBase = position * 4;
+    }
+
+    private static IntBuffer section(ByteBuffer buffer, int intPosition, int length) {
+        return buffer.slice(intPosition * 4, length * 4).asIntBuffer();
+    }
+
+    /**
+     * MappedGraph is read-only, so nodes cannot be added.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public void addNode(String descr) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    /**
+     * MappedGraph is read-only, so edges cannot be added.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public void addDirectedEdge(String descr1, String descr2) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    /**
+     * MappedGraph is read-only, so edges cannot be added.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public void addUndirectedEdge(String descr1, String descr2) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    /**
+     * MappedGraph is read-only, so edges cannot be added.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    public void addEdges(EdgeBatch batch) {
+        throw new UnsupportedOperationException("MappedGraph is read-only");
+    }
+
+    /**
+     * Method to get the number of directed edges in the graph.
+     *
+     * @return the number of directed edges
+     */
+    public int edgeCount() {
+        return this.targets.limit();
+    }
+
+    /**
+     * Method to check whether there is an edge from one node id to another.
+     *
+     * @param from the source node id
+     * @param to   the target node id
+     * @return true if the edge exists, otherwise false
+     */
+    public boolean hasEdge(int from, int to) {
+        int low = this.offsets.get(from);
+        int high = this.offsets.get(from + 1) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int target = this.targets.get(middle);
+            if (target < to) {
+                low = middle + 1;
+            } else if (target > to) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method to count how many nodes have edges to themselves
+     *
+     * @return the number of nodes that have edges to themselves
+     */
+    public int countSelfEdges() {
+        int counter = 0;
+        for (int i = 0; i < this.nodeCount; i++) {
+            if (this.hasEdge(i, i)) {
+                counter++;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Method to check whether a given node has edges to every other node (with or without an edge to itself).
+     * Assumes that fromNodeLabel is a valid node label in the graph.
+     *
+     * @param fromNodeLabel the node to check
+     * @return true if fromNodeLabel has an edge to every other node, otherwise false
+     */
+    public boolean reachesAllOthers(String fromNodeLabel) {
+        int id = this.idOf(fromNodeLabel);
+        int degree = this.offsets.get(id + 1) - this.offsets.get(id);
+        return degree - (this.hasEdge(id, id) ? 1 : 0) == this.nodeCount - 1;
+    }
+
+    @Override
+    public LinkedList<String> getNeighbors(String checkNode) {
+        LinkedList<String> stringList = new LinkedList<>();
+        this.forEachNeighbor(this.idOf(checkNode), id -> stringList.add(this.labelOf(id)));
+        return stringList;
+    }
+
+    @Override
+    public LinkedList<String> getPredecessors(String checkNode) {
+        LinkedList<String> stringList = new LinkedList<>();
+        this.forEachPredecessor(this.idOf(checkNode), id -> stringList.add(this.labelOf(id)));
+        return stringList;
+    }
+
+    @Override
+    public ArrayList<String> getAllNodes() {
+        ArrayList<String> allNodes = new ArrayList<>(this.nodeCount);
+        for (int i = 0; i < this.nodeCount; i++) {
+            allNodes.add(this.labelOf(i));
+        }
+        return allNodes;
+    }
+
+    @Override
+    public int nodeCount() {
+        return this.nodeCount;
+    }
+
+    @Override
+    public int idOf(String label) {
+        byte[] bytes = label.getBytes(StandardCharsets.UTF_8);
+        int slot = GraphSnapshot.hash(bytes, 0, bytes.length) & (this.hashSlots - 1);
+        int entry;
+        while ((entry = this.hashTable.get(slot)) != 0) {
+            if (this.labelEquals(entry - 1, bytes)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & (this.hashSlots - 1);
+        }
+        return -1;
+    }
+
+    @Override
+    public String labelOf(int id) {
+        int from = this.labelOffsets.get(id);
+        byte[] bytes = new byte[this.labelOffsets.get(id + 1) - from];
+        this.buffer.get(this.labelBase + from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public long modificationEpoch() {
+        return 0;
+    }
+
+    /**
+     * Method to copy the mapped graph onto the heap, where rows are read from
+     * int arrays instead of through the mapped buffer. The graph never changes,
+     * so the copy is made on the first call and returned by every later one.
+     *
+     * @return an immutable copy of the graph
+     */
+    @Override
+    public CsrGraph freeze() {
+        CsrGraph result = this.frozen;
+        if (result == null) {
+            result = new CsrGraph(this.name, this);
+            this.frozen = result;
+        }
+        return result;
+    }
+
+    @Override
+    public void forEachNeighbor(int id, IntConsumer action) {
+        int end = this.offsets.get(id + 1);
+        for (int i = this.offsets.get(id); i < end; i++) {
+            action.accept(this.targets.get(i));
+        }
+    }
+
+    @Override
+    public void forEachPredecessor(int id, IntConsumer action) {
+        int end = this.inOffsets.get(id + 1);
+        for (int i = this.inOffsets.get(id); i < end; i++) {
+            action.accept(this.inTargets.get(i));
+        }
+    }
+
+    @Override
+    public boolean indexesInEdges() {
+        return true;
+    }
+
+    /**
+     * Compares the stored label of a node with UTF-8 bytes without decoding it.
+     */
+    private boolean labelEquals(int id, byte[] bytes) {
+        int from = this.labelOffsets.get(id);
+        int length = this.labelOffsets.get(id + 1) - from;
+        from += this.labelBase;
+        if (length != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (this.buffer.get(from + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
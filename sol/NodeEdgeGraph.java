@@ -3,30 +3,45 @@ package sol;
 import src.*;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.function.IntConsumer;
 
 /**
  * This is NodeEdgeGraph class. It provides a way to represent a graph using
  * a collection of Nodes and edges.
+ * Optionally, every Node also keeps the nodes that point to it, so that
+ * predecessor queries do not have to look at every node of the graph.
  */
 public class NodeEdgeGraph implements IGraph {
     public String name;
-    public HashMap<String, Node> allNodes;
+    LabelDictionary labels; // the label of every node, by id
+    ArrayList<Node> nodesById; // the nodes indexed by their int id
+    final boolean indexInEdges; // whether every Node keeps its prevNodes
+    long epoch; // bumped by every node or edge that is actually added
+    CsrGraph frozen; // the last result of freeze(), or null
+    long frozenEpoch; // the epoch frozen was built at
 
     // ---------------------------------------------
     // the Node class
     static class Node {
-        String descr;  // a descriptive name for the node
-        LinkedList<Node> nextNodes; // the nodes that this node can get to
+        int id; // the dense int id of the node, which names it in the LabelDictionary
+        AdjacencySet nextNodes; // the ids of the nodes that this node can get to, in insertion order
+        AdjacencySet prevNodes; // the ids of the nodes that can get to this node, or null without the index
 
-        public Node(String descr) {
-            this.descr = descr;
-            this.nextNodes = new LinkedList<>();
+        public Node(int id, boolean indexInEdges) {
+            this.id = id;
+            this.nextNodes = new AdjacencySet();
+            this.prevNodes = indexInEdges ? new AdjacencySet() : null;
         }
 
-        private void addEdge(Node toNode) {
-            this.nextNodes.add(toNode);
+        private boolean addEdge(Node toNode) {
+            if (!this.nextNodes.add(toNode.id)) {
+                return false;
+            }
+            if (toNode.prevNodes != null) {
+                toNode.prevNodes.add(this.id);
+            }
+            return true;
         }
     }
 
@@ -36,8 +51,22 @@ public class NodeEdgeGraph implements IGraph {
      * NodeEdgeGraph class.
      */
     public NodeEdgeGraph(String name) {
+        this(name, false);
+    }
+
+    /**
+     * NodeEdgeGraph's constructor. Instantiates the instance variables of
+     * NodeEdgeGraph class.
+     *
+     * @param name         the name of the graph
+     * @param indexInEdges true to also keep the in-edges of every node, which makes
+     *                     predecessor queries as fast as neighbor queries
+     */
+    public NodeEdgeGraph(String name, boolean indexInEdges) {
         this.name = name;
-        this.allNodes = new HashMap<String, Node>();
+        this.labels = new LabelDictionary();
+        this.nodesById = new ArrayList<Node>();
+        this.indexInEdges = indexInEdges;
     }
 
     /**
@@ -47,7 +76,8 @@ public class NodeEdgeGraph implements IGraph {
      * @return the Node that has label as its description
      */
     public Node getNode(String label) {
-        return this.allNodes.get(label);
+        int id = this.labels.idOf(label);
+        return id == -1 ? null : this.nodesById.get(id);
     }
 
     /**
@@ -59,7 +89,7 @@ public class NodeEdgeGraph implements IGraph {
      *                                 associated with a node in the graph
      */
     public void addNode(String descr) throws NodeNameExistsException {
-        if (this.allNodes.containsKey(descr))
+        if (this.labels.idOf(descr) != -1)
             throw new NodeNameExistsException(descr);
         this.addNodeUnchecked(descr);
     }
@@ -73,8 +103,9 @@ public class NodeEdgeGraph implements IGraph {
      * @return the (new) node associated with the given description
      */
     private Node addNodeUnchecked(String descr) {
-        Node newNode = new Node(descr);
-        this.allNodes.put(descr, newNode);
+        Node newNode = new Node(this.labels.intern(descr), this.indexInEdges);
+        this.nodesById.add(newNode);
+        this.epoch++;
         return newNode;
     }
 
@@ -89,14 +120,19 @@ public class NodeEdgeGraph implements IGraph {
      * @param descr2 the target node for the edge
      */
     public void addDirectedEdge(String descr1, String descr2) {
-        Node node1 = this.allNodes.get(descr1);
+        Node node1 = this.getNode(descr1);
         if (node1 == null) node1 = this.addNodeUnchecked(descr1);
-        Node node2 = this.allNodes.get(descr2);
+        Node node2 = this.getNode(descr2);
         if (node2 == null) node2 = this.addNodeUnchecked(descr2);
-        if (!(node1.nextNodes.contains(node2))) {
-            node1.addEdge(node2);
+        if (node1.addEdge(node2)) {
+            this.epoch++;
         }
     }
+    /*
+    Constant Time O(1)
+    The label lookups are hash lookups, and AdjacencySet checks for a duplicate edge while adding
+    it, in constant expected time whatever the out-degree of descr1.
+     */
 
     /**
      * Method to add an undirected edge between the nodes associated with the given
@@ -113,6 +149,21 @@ public class NodeEdgeGraph implements IGraph {
         this.addDirectedEdge(descr2, descr1);
     }
 
+    /**
+     * Method to add every edge of a batch, in order.
+     *
+     * @param batch the edges to add
+     */
+    public void addEdges(EdgeBatch batch) {
+        for (int i = 0; i < batch.size; i++) {
+            if (batch.directed[i]) {
+                this.addDirectedEdge(batch.sources[i], batch.targets[i]);
+            } else {
+                this.addUndirectedEdge(batch.sources[i], batch.targets[i]);
+            }
+        }
+    }
+
     /**
      * Method to count how many nodes have edges to themselves
      *
@@ -120,20 +171,18 @@ public class NodeEdgeGraph implements IGraph {
      */
     public int countSelfEdges() {
         int counter = 0;
-        for (String key : this.allNodes.keySet()) {
-            LinkedList neighbors = this.allNodes.get(key).nextNodes;
-            if (neighbors.contains(this.allNodes.get(key))) {
+        for (Node node : this.nodesById) {
+            if (node.nextNodes.contains(node.id)) {
                 counter++;
             }
         }
         return counter;
     }
     /*
-    Worst case scenario is a fully connected graph, leading to each city having N neighbors.
-    Quadratic time O(N^2).
-    The runtime depends on the number of "cities" (N) in the allNodes HashMap.
-    There is a for loop that will run N times. For each iteration linear time operations are performed;
-    searching for an element in a Linked List is Linear (neighbors).
+    Linear Time O(N)
+    The runtime depends on the number of "cities" (N) in the nodesById list.
+    There is a for loop that will run N times. For each iteration a constant time
+    lookup in the AdjacencySet of the node is performed.
      */
 
     /**
@@ -144,39 +193,98 @@ public class NodeEdgeGraph implements IGraph {
      * @return true if fromNodeLabel has an edge to every other node, otherwise false
      */
     public boolean reachesAllOthers(String fromNodeLabel) {
-        LinkedList neighbors = this.allNodes.get(fromNodeLabel).nextNodes;
-        for (String key : this.allNodes.keySet()) {
-            if (!neighbors.contains(this.allNodes.get(key)) && !key.equals(fromNodeLabel)) {
-                return false;
-            }
-        }
-        return true;
+        Node fromNode = this.getNode(fromNodeLabel);
+        int others = fromNode.nextNodes.size() - (fromNode.nextNodes.contains(fromNode.id) ? 1 : 0);
+        return others == this.nodesById.size() - 1;
     }
     /*
-    Worst case scenario is a fully connected graph, leading to each city having N neighbors.
-    Quadratic time O(N^2).
-    The runtime depends on the number of "cities" (N) in the allNodes HashMap.
-    There is a for loop that will run N times. For each iteration linear time operations are performed;
-    searching for an element in a Linked List is Linear (neighbors).
+    Constant Time O(1)
+    The AdjacencySet of a node holds no duplicates, so the node reaches all others exactly when
+    its out-degree, not counting a self edge, is N - 1.
      */
 
 
     @Override
     public LinkedList<String> getNeighbors(String checkNode) {
-        LinkedList stringList = new LinkedList<>();
-        if (this.allNodes.get(checkNode).nextNodes.isEmpty())
-            return stringList;
-        for (Node node : this.allNodes.get(checkNode).nextNodes) {
-            stringList.add(node.descr);
-        }
+        LinkedList<String> stringList = new LinkedList<>();
+        this.getNode(checkNode).nextNodes.forEach(id -> stringList.add(this.labels.labelOf(id)));
+        return stringList;
+    }
+
+    @Override
+    public LinkedList<String> getPredecessors(String checkNode) {
+        LinkedList<String> stringList = new LinkedList<>();
+        this.forEachPredecessor(this.labels.idOf(checkNode), id -> stringList.add(this.labels.labelOf(id)));
         return stringList;
     }
 
     @Override
     public ArrayList<String> getAllNodes(){
-        return new ArrayList<>(this.allNodes.keySet());
+        ArrayList<String> allNodes = new ArrayList<>(this.nodesById.size());
+        for (int i = 0; i < this.nodesById.size(); i++) {
+            allNodes.add(this.labels.labelOf(i));
+        }
+        return allNodes;
+    }
+
+    @Override
+    public int nodeCount() {
+        return this.nodesById.size();
+    }
+
+    @Override
+    public int idOf(String label) {
+        return this.labels.idOf(label);
+    }
+
+    @Override
+    public String labelOf(int id) {
+        return this.labels.labelOf(id);
+    }
+
+    @Override
+    public long modificationEpoch() {
+        return this.epoch;
+    }
+
+    @Override
+    public CsrGraph freeze() {
+        if (this.frozen == null || this.frozenEpoch != this.epoch) {
+            this.frozen = new CsrGraph(this.name, this);
+            this.frozenEpoch = this.epoch;
+        }
+        return this.frozen;
     }
 
+    @Override
+    public void forEachNeighbor(int id, IntConsumer action) {
+        this.nodesById.get(id).nextNodes.forEach(action);
+    }
+
+    @Override
+    public void forEachPredecessor(int id, IntConsumer action) {
+        Node toNode = this.nodesById.get(id);
+        if (toNode.prevNodes != null) {
+            toNode.prevNodes.forEach(action);
+            return;
+        }
+        for (Node node : this.nodesById) {
+            if (node.nextNodes.contains(id)) {
+                action.accept(node.id);
+            }
+        }
+    }
+
+    @Override
+    public boolean indexesInEdges() {
+        return this.indexInEdges;
+    }
+    /*
+    Linear Time O(P) with the in-edge index, O(N) without it
+    With the index the P predecessors are read from the prevNodes of the node.
+    Without it every node in the nodesById list is asked, in constant time, whether it has the edge.
+     */
+
 
 
 }
@@ -0,0 +1,377 @@
+package sol;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ParallelBfs class. It runs a level-synchronous breadth-first search over a
+ * CsrGraph on a ForkJoinPool, choosing for every level between two kinds of step:
+ *   top-down:  the frontier is an int[]; tasks split it, scan the out-edges of their
+ *              nodes and claim every unvisited target with a compare-and-set on the
+ *              visited bitset;
+ *   bottom-up: the frontier is a bitset; tasks split the unvisited nodes by 64-node
+ *              words and scan the in-edges of every unvisited node until one of them
+ *              comes from the frontier, so no node is claimed twice and no CAS is needed.
+ * Top-down is cheaper while the frontier is small. Once the edges leaving the frontier
+ * outnumber the edges left to explore divided by ALPHA, most top-down edge checks would
+ * fail, so the search switches to bottom-up, and back once the frontier holds fewer
+ * than nodeCount / BETA nodes.
+ * Top-down levels smaller than NODES_PER_TASK run on the calling thread, so a search
+ * whose target is close by never touches the pool; it is handed to the pool once
+ * the frontier grows past that size.
+ * Below EDGE_THRESHOLD edges, or with a single worker, the task overhead outweighs
+ * the gain and GraphUtils keeps the sequential BfsEngine.
+ * Like BfsEngine, the arrays of a search are kept per thread between calls and only
+ * grown, so a search does not allocate per node apart from the returned route.
+ */
+public class ParallelBfs {
+    public static final int EDGE_THRESHOLD = 1 << 20;
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    private static final int NODES_PER_TASK = 1 << 12;
+    private static final int WORDS_PER_TASK = NODES_PER_TASK >>> 6;
+    private static final ThreadLocal<ParallelBfs> SEARCHES = ThreadLocal.withInitial(ParallelBfs::new);
+
+    private int lastVisited; // the nodes the last search on this thread visited
+    private boolean busy; // whether a search is running, so a task stolen by this thread does not reuse it
+    private CsrGraph theGraph; // the graph being searched, only set during a search
+    private int nodeCount;
+    private int words; // the visited words in use, (nodeCount + 63) / 64
+    private int[] offsets;
+    private int[] targets;
+    private int[] inOffsets; // read from the transpose at the first bottom-up step
+    private int[] inTargets;
+    private AtomicLongArray visited = new AtomicLongArray(0);
+    private int[] parents = new int[0];
+    private int[] frontier = new int[0]; // the current level, while stepping top-down
+    private int frontierSize;
+    private int[] next = new int[0];
+    private final AtomicInteger nextSize = new AtomicInteger();
+    private long[] frontierBits = new long[0]; // the current level, while stepping bottom-up
+    private long[] nextBits = new long[0];
+    private final AtomicLong nextEdges = new AtomicLong(); // the out-edges of the nodes found by the last step
+
+
+    private ParallelBfs() {
+    }
+
+    /**
+     * Method to check whether a search on the given graph is large enough to be
+     * worth running in parallel on the common pool. Only a CsrGraph qualifies, since
+     * bottom-up steps read its transpose; call freeze() on a large mutable graph first.
+     *
+     * @param theGraph the graph to search
+     * @return true if GraphUtils should use ParallelBfs for it
+     */
+    public static boolean isWorthwhile(IGraph theGraph) {
+        return theGraph instanceof CsrGraph
+                && ((CsrGraph) theGraph).edgeCount() >= EDGE_THRESHOLD
+                && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    /**
+     * Method to compute a shortest path from one node id to another.
+     *
+     * @param theGraph the graph to traverse
+     * @param from     the id of the node from which to start searching
+     * @param to       the id of the node we want to reach
+     * @param pool     the pool to run the steps on
+     * @return the ids along the path, from first, or null if no such path exists
+     */
+    public static int[] route(CsrGraph theGraph, int from, int to, ForkJoinPool pool) {
+        ParallelBfs mine = SEARCHES.get();
+        ParallelBfs search = mine.busy ? new ParallelBfs() : mine;
+        search.busy = true;
+        try {
+            search.reset(theGraph);
+            boolean found = search.search(from, to, pool);
+            mine.lastVisited = search.countVisited();
+            return found ? search.pathTo(to) : null;
+        } finally {
+            search.theGraph = null;
+            search.offsets = null;
+            search.targets = null;
+            search.inOffsets = null;
+            search.inTargets = null;
+            search.busy = false;
+        }
+    }
+
+    /**
+     * Method to get the number of nodes the last route call on this thread visited.
+     *
+     * @return the nodes visited
+     */
+    public static int lastVisitedCount() {
+        return SEARCHES.get().lastVisited;
+    }
+
+    private int countVisited() {
+        int count = 0;
+        for (int w = 0; w < this.words; w++) {
+            count += Long.bitCount(this.visited.get(w));
+        }
+        return count;
+    }
+
+    /**
+     * Binds the search to a graph, growing the arrays if it has more nodes than any
+     * graph searched before on this thread, and clearing the visited bits in use.
+     */
+    private void reset(CsrGraph theGraph) {
+        this.theGraph = theGraph;
+        this.nodeCount = theGraph.nodeCount();
+        this.words = (this.nodeCount + 63) >>> 6;
+        this.offsets = theGraph.offsets;
+        this.targets = theGraph.targets;
+        if (this.parents.length < this.nodeCount) {
+            int capacity = Math.max(this.nodeCount, this.parents.length * 2);
+            this.parents = new int[capacity];
+            this.frontier = new int[capacity];
+            this.next = new int[capacity];
+            this.visited = new AtomicLongArray((capacity + 63) >>> 6);
+            this.frontierBits = new long[(capacity + 63) >>> 6];
+            this.nextBits = new long[(capacity + 63) >>> 6];
+        } else {
+            for (int w = 0; w < this.words; w++) {
+                this.visited.setPlain(w, 0L);
+            }
+        }
+    }
+
+    private int[] pathTo(int to) {
+        int length = 0;
+        for (int id = to; id != -1; id = this.parents[id]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int id = to; id != -1; id = this.parents[id]) {
+            path[--length] = id;
+        }
+        return path;
+    }
+
+    /**
+     * Runs the search level by level until the target is visited or a level is empty.
+     */
+    private boolean search(int from, int to, ForkJoinPool pool) {
+        this.visited.set(from >>> 6, 1L << from);
+        this.parents[from] = -1;
+        this.frontier[0] = from;
+        this.frontierSize = 1;
+        long frontierEdges = this.degree(from);
+        long unexploredEdges = this.targets.length - frontierEdges;
+        boolean bottomUp = false;
+        while (this.frontierSize > 0 && !this.isVisited(to)) {
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+                this.toBits();
+            } else if (bottomUp && this.frontierSize < this.nodeCount / BETA) {
+                bottomUp = false;
+                this.toList();
+            }
+            this.nextSize.set(0);
+            this.nextEdges.set(0);
+            if (bottomUp) {
+                pool.invoke(new BottomUpTask(0, this.words));
+                long[] swap = this.frontierBits;
+                this.frontierBits = this.nextBits;
+                this.nextBits = swap;
+            } else {
+                if (this.frontierSize <= NODES_PER_TASK) {
+                    this.topDownStep();
+                } else {
+                    pool.invoke(new TopDownTask(0, this.frontierSize));
+                }
+                int[] swap = this.frontier;
+                this.frontier = this.next;
+                this.next = swap;
+            }
+            this.frontierSize = this.nextSize.get();
+            frontierEdges = this.nextEdges.get();
+            unexploredEdges -= frontierEdges;
+        }
+        return this.isVisited(to);
+    }
+
+    /**
+     * Expands a small frontier on the calling thread. No other thread touches the
+     * arrays during the step, so nodes are claimed without a compare-and-set.
+     */
+    private void topDownStep() {
+        int size = 0;
+        long edges = 0;
+        for (int i = 0; i < this.frontierSize; i++) {
+            int u = this.frontier[i];
+            for (int e = this.offsets[u]; e < this.offsets[u + 1]; e++) {
+                int v = this.targets[e];
+                long word = this.visited.getPlain(v >>> 6);
+                if ((word & (1L << v)) == 0) {
+                    this.visited.setPlain(v >>> 6, word | (1L << v));
+                    this.parents[v] = u;
+                    edges += this.degree(v);
+                    this.next[size++] = v;
+                }
+            }
+        }
+        this.nextSize.set(size);
+        this.nextEdges.set(edges);
+    }
+
+    private boolean isVisited(int id) {
+        return (this.visited.get(id >>> 6) & (1L << id)) != 0;
+    }
+
+    private int degree(int id) {
+        return this.offsets[id + 1] - this.offsets[id];
+    }
+
+    /**
+     * Sets the visited bit of a node unless another task already did.
+     *
+     * @return true if this call claimed the node
+     */
+    private boolean claim(int id) {
+        int word = id >>> 6;
+        long bit = 1L << id;
+        long current = this.visited.get(word);
+        while ((current & bit) == 0) {
+            if (this.visited.compareAndSet(word, current, current | bit)) {
+                return true;
+            }
+            current = this.visited.get(word);
+        }
+        return false;
+    }
+
+    /**
+     * Turns the frontier list into a bitset before a bottom-up step.
+     */
+    private void toBits() {
+        if (this.inOffsets == null) {
+            CsrGraph transposed = this.theGraph.transpose();
+            this.inOffsets = transposed.offsets;
+            this.inTargets = transposed.targets;
+        }
+        Arrays.fill(this.frontierBits, 0, this.words, 0L);
+        for (int i = 0; i < this.frontierSize; i++) {
+            int id = this.frontier[i];
+            this.frontierBits[id >>> 6] |= 1L << id;
+        }
+    }
+
+    /**
+     * Turns the frontier bitset into a list before a top-down step.
+     */
+    private void toList() {
+        int size = 0;
+        for (int w = 0; w < this.words; w++) {
+            long word = this.frontierBits[w];
+            while (word != 0) {
+                this.frontier[size++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        this.frontierSize = size;
+    }
+
+    /**
+     * Expands frontier[from .. to) along out-edges, appending the claimed targets to next.
+     */
+    private class TopDownTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        TopDownTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > NODES_PER_TASK) {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new TopDownTask(this.from, middle), new TopDownTask(middle, this.to));
+                return;
+            }
+            int[] found = new int[64];
+            int size = 0;
+            long edges = 0;
+            for (int i = this.from; i < this.to; i++) {
+                int u = frontier[i];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int v = targets[e];
+                    if (!isVisited(v) && claim(v)) {
+                        parents[v] = u;
+                        edges += degree(v);
+                        if (size == found.length) {
+                            found = Arrays.copyOf(found, size * 2);
+                        }
+                        found[size++] = v;
+                    }
+                }
+            }
+            System.arraycopy(found, 0, next, nextSize.getAndAdd(size), size);
+            nextEdges.addAndGet(edges);
+        }
+    }
+
+    /**
+     * Looks for a frontier predecessor of every unvisited node of the words [from, to).
+     * Each word belongs to a single task, so its visited and next bits are written plainly.
+     */
+    private class BottomUpTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        BottomUpTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > WORDS_PER_TASK) {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new BottomUpTask(this.from, middle), new BottomUpTask(middle, this.to));
+                return;
+            }
+            int size = 0;
+            long edges = 0;
+            for (int w = this.from; w < this.to; w++) {
+                long seen = visited.get(w);
+                long unvisited = ~seen;
+                if (w == words - 1 && (nodeCount & 63) != 0) {
+                    unvisited &= (1L << nodeCount) - 1;
+                }
+                long found = 0;
+                while (unvisited != 0) {
+                    int v = (w << 6) + Long.numberOfTrailingZeros(unvisited);
+                    unvisited &= unvisited - 1;
+                    for (int e = inOffsets[v]; e < inOffsets[v + 1]; e++) {
+                        int u = inTargets[e];
+                        if ((frontierBits[u >>> 6] & (1L << u)) != 0) {
+                            parents[v] = u;
+                            found |= 1L << v;
+                            edges += degree(v);
+                            size++;
+                            break;
+                        }
+                    }
+                }
+                visited.set(w, seen | found);
+                nextBits[w] = found;
+            }
+            nextSize.addAndGet(size);
+            nextEdges.addAndGet(edges);
+        }
+    }
+}
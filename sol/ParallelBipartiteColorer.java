@@ -0,0 +1,199 @@
+package sol;
+
+import src.NoScheduleException;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ParallelBipartiteColorer class. It colors the connected components of a graph
+ * concurrently on a ForkJoinPool, in three steps:
+ *   1. a lock-free union-find over every edge, split by node ranges, finds the components;
+ *   2. a counting sort groups the node ids of every component, in increasing order;
+ *   3. ranges of components are 2-colored by BipartiteColorers sharing one color array.
+ * As soon as one component has an odd cycle every other task is cancelled and the
+ * NoScheduleException, carrying that cycle, is rethrown. The coloring is the same as BipartiteColorer.color,
+ * since each component is colored by the same search starting from its lowest id.
+ * The graph must not be modified while it is being colored.
+ */
+public class ParallelBipartiteColorer {
+    private static final int NODES_PER_TASK = 1 << 12;
+
+    private final IGraph theGraph;
+    private final int nodeCount;
+    private final AtomicIntegerArray parents; // union-find forest over node ids
+    private final byte[] colors;
+    private final int[] bfsParents; // shared by the BipartiteColorers for odd cycle certificates
+    private final int[] bfsDepths;
+    private final AtomicBoolean cancelled;
+    private final AtomicReference<NoScheduleException> failure;
+    private int[] members; // node ids grouped by component
+    private int[] componentStarts; // component c holds members[componentStarts[c] .. componentStarts[c + 1])
+
+
+    private ParallelBipartiteColorer(IGraph theGraph) {
+        this.theGraph = theGraph;
+        this.nodeCount = theGraph.nodeCount();
+        this.parents = new AtomicIntegerArray(this.nodeCount);
+        for (int i = 0; i < this.nodeCount; i++) {
+            this.parents.set(i, i);
+        }
+        this.colors = new byte[this.nodeCount];
+        Arrays.fill(this.colors, BipartiteColorer.UNCOLORED);
+        this.bfsParents = new int[this.nodeCount];
+        this.bfsDepths = new int[this.nodeCount];
+        this.cancelled = new AtomicBoolean(false);
+        this.failure = new AtomicReference<>();
+    }
+
+    /**
+     * Method to color every node of a graph with instructor 0 or 1 so that no
+     * edge joins two nodes of the same instructor, one component per task.
+     *
+     * @param theGraph the graph to color
+     * @param pool     the pool to run the tasks on
+     * @return the instructor of every node, indexed by id
+     * @throws NoScheduleException if no such coloring exists
+     */
+    public static byte[] color(IGraph theGraph, ForkJoinPool pool) throws NoScheduleException {
+        ParallelBipartiteColorer colorer = new ParallelBipartiteColorer(theGraph);
+        pool.invoke(colorer.new UnionTask(0, colorer.nodeCount));
+        colorer.groupComponents();
+        pool.invoke(colorer.new ColorTask(0, colorer.componentStarts.length - 1));
+        if (colorer.failure.get() != null) {
+            throw colorer.failure.get();
+        }
+        return colorer.colors;
+    }
+
+    private int find(int id) {
+        int parent = this.parents.get(id);
+        while (parent != id) {
+            int grandparent = this.parents.get(parent);
+            this.parents.compareAndSet(id, parent, grandparent); // path halving, losing the race is harmless
+            id = parent;
+            parent = grandparent;
+        }
+        return id;
+    }
+
+    /**
+     * Joins the components of two nodes, always linking the larger root under the
+     * smaller one, so every root is the lowest id of its component.
+     */
+    private void union(int a, int b) {
+        while (true) {
+            int rootA = this.find(a);
+            int rootB = this.find(b);
+            if (rootA == rootB) {
+                return;
+            }
+            int low = Math.min(rootA, rootB);
+            int high = Math.max(rootA, rootB);
+            if (this.parents.compareAndSet(high, high, low)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Counting sort of the node ids by root. Scanning ids in increasing order keeps
+     * every component sorted and puts the components in the order of their lowest id.
+     */
+    private void groupComponents() {
+        int[] componentOf = new int[this.nodeCount];
+        int components = 0;
+        for (int i = 0; i < this.nodeCount; i++) {
+            int root = this.find(i);
+            componentOf[i] = root == i ? components++ : componentOf[root];
+        }
+        this.componentStarts = new int[components + 1];
+        for (int i = 0; i < this.nodeCount; i++) {
+            this.componentStarts[componentOf[i] + 1]++;
+        }
+        for (int c = 0; c < components; c++) {
+            this.componentStarts[c + 1] += this.componentStarts[c];
+        }
+        int[] next = Arrays.copyOf(this.componentStarts, components);
+        this.members = new int[this.nodeCount];
+        for (int i = 0; i < this.nodeCount; i++) {
+            this.members[next[componentOf[i]]++] = i;
+        }
+    }
+
+    /**
+     * Unions the endpoints of every edge leaving the nodes in [from, to).
+     */
+    private class UnionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        UnionTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > NODES_PER_TASK) {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new UnionTask(this.from, middle), new UnionTask(middle, this.to));
+                return;
+            }
+            for (int id = this.from; id < this.to; id++) {
+                int source = id;
+                theGraph.forEachNeighbor(id, target -> union(source, target));
+            }
+        }
+    }
+
+    /**
+     * Colors the components [from, to), splitting the range while it holds more
+     * than NODES_PER_TASK nodes and more than one component.
+     */
+    private class ColorTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        ColorTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled.get()) {
+                return;
+            }
+            if (this.to - this.from > 1 && componentStarts[this.to] - componentStarts[this.from] > NODES_PER_TASK) {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new ColorTask(this.from, middle), new ColorTask(middle, this.to));
+                return;
+            }
+            int largest = 0;
+            for (int c = this.from; c < this.to; c++) {
+                largest = Math.max(largest, componentStarts[c + 1] - componentStarts[c]);
+            }
+            BipartiteColorer colorer = new BipartiteColorer(theGraph, colors, bfsParents, bfsDepths, largest,
+                    cancelled, false);
+            try {
+                for (int i = componentStarts[this.from]; i < componentStarts[this.to] && !cancelled.get(); i++) {
+                    if (colors[members[i]] == BipartiteColorer.UNCOLORED) {
+                        colorer.colorFrom(members[i]);
+                    }
+                }
+            } catch (NoScheduleException e) {
+                failure.compareAndSet(null, e);
+                cancelled.set(true);
+            }
+        }
+    }
+}
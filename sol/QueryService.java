@@ -0,0 +1,487 @@
+package sol;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import src.NoScheduleException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * QueryService class. It serves route and schedule queries over one graph with
+ * the JDK HttpServer, bound to the loopback address. Every request body and
+ * response is UTF-8 text:
+ *   GET  /hasRoute?from=A&to=B   true or false
+ *   GET  /getRoute?from=A&to=B   the labels of a shortest route, one per line, or 404
+ *   GET  /findSchedule           one line per lab, its instructor (0 or 1), a tab and its label,
+ *                                or 409 and the labs of an odd cycle, one per line
+ *   POST /checkValidity          the same lines as findSchedule returns; true or false
+ * Requests are handled on virtual threads when the JDK has them, otherwise on a
+ * cached thread pool. Queries run on a frozen snapshot of the graph, so a
+ * ConcurrentGraph can keep loading while the service runs; other graphs must not
+ * change while it runs. All handlers share one snapshot, which is taken again only
+ * when the graph has changed and the refresh interval has passed since the last
+ * one, so a burst of queries during a load coalesces on the same snapshot instead
+ * of copying the graph for each of them.
+ * Route queries that arrive while a search from the same source is running join
+ * that search instead of starting their own: the thread that started it keeps
+ * advancing the one BFS until the target of every query that joined is visited,
+ * then stops, so a lone query costs no more than GraphUtils.getRoute.
+ * A bad request is answered with 400, and any other failure with 500.
+ * The BfsEngines are pooled by the service rather than kept per thread, since
+ * every request may run on a new virtual thread.
+ */
+public class QueryService implements AutoCloseable {
+    public static final long DEFAULT_REFRESH_MILLIS = 100;
+
+    private final IGraph theGraph;
+    private final long refreshNanos;
+    private final Object snapshotLock; // held while a new snapshot is taken
+    private volatile Snapshot latest; // the snapshot every handler reads, or null before the first query
+    private final ConcurrentHashMap<Integer, Traversal> traversals; // the searches running, by source id
+    private final ConcurrentLinkedQueue<BfsEngine> engines; // the engines no request is using
+    private HttpServer server;
+    private ExecutorService executor;
+
+
+    /**
+     * Constructor of the QueryService class, refreshing its snapshot at most every
+     * DEFAULT_REFRESH_MILLIS. The service does not listen until start is called.
+     *
+     * @param theGraph the graph to answer queries on
+     */
+    public QueryService(IGraph theGraph) {
+        this(theGraph, DEFAULT_REFRESH_MILLIS);
+    }
+
+    /**
+     * Constructor of the QueryService class. The service does not listen until start is called.
+     *
+     * @param theGraph      the graph to answer queries on
+     * @param refreshMillis the least time between two snapshots of the graph, or 0 to
+     *                      answer every query on the graph as it is when the query arrives
+     */
+    public QueryService(IGraph theGraph, long refreshMillis) {
+        if (refreshMillis < 0) {
+            throw new IllegalArgumentException("the refresh interval cannot be negative: " + refreshMillis);
+        }
+        this.theGraph = theGraph;
+        this.refreshNanos = refreshMillis * 1_000_000;
+        this.snapshotLock = new Object();
+        this.traversals = new ConcurrentHashMap<>();
+        this.engines = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * A frozen copy of the graph, with the epoch it was taken at and when.
+     */
+    private static class Snapshot {
+        final CsrGraph graph;
+        final long epoch;
+        final long takenNanos;
+
+        Snapshot(CsrGraph graph, long epoch, long takenNanos) {
+            this.graph = graph;
+            this.epoch = epoch;
+            this.takenNanos = takenNanos;
+        }
+    }
+
+    /**
+     * A search from one source over one snapshot, shared by the route queries from
+     * that source that arrive while it runs.
+     */
+    private static class Traversal {
+        final CsrGraph snapshot;
+        final int from;
+        private final ArrayDeque<Query> pending; // the queries whose target is not looked for yet
+        private boolean closed; // set once the search has stopped, after which no query can join
+
+        Traversal(CsrGraph snapshot, int from, Query first) {
+            this.snapshot = snapshot;
+            this.from = from;
+            this.pending = new ArrayDeque<>();
+            this.pending.add(first);
+        }
+
+        /**
+         * Adds a query to the search, unless it has already stopped.
+         *
+         * @return true if the query will be answered by this search
+         */
+        synchronized boolean join(Query query) {
+            if (this.closed) {
+                return false;
+            }
+            this.pending.add(query);
+            return true;
+        }
+
+        /**
+         * Takes the next query to answer, or closes the search if there is none left.
+         */
+        synchronized Query next() {
+            Query query = this.pending.poll();
+            if (query == null) {
+                this.closed = true;
+            }
+            return query;
+        }
+
+        /**
+         * Closes the search and fails every query still waiting on it.
+         */
+        synchronized void fail(RuntimeException e) {
+            this.closed = true;
+            for (Query query : this.pending) {
+                query.path.completeExceptionally(e);
+            }
+            this.pending.clear();
+        }
+    }
+
+    /**
+     * The target of one route query and the path that answers it, or null if there is none.
+     */
+    private static class Query {
+        final int to;
+        final CompletableFuture<int[]> path;
+
+        Query(int to) {
+            this.to = to;
+            this.path = new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * Method to start listening on the loopback address.
+     *
+     * @param port the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public void start(int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = newRequestExecutor();
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/hasRoute", exchange -> this.handle(exchange, this::hasRoute));
+        this.server.createContext("/getRoute", exchange -> this.handle(exchange, this::getRoute));
+        this.server.createContext("/findSchedule", exchange -> this.handle(exchange, this::findSchedule));
+        this.server.createContext("/checkValidity", exchange -> this.handle(exchange, this::checkValidity));
+        this.server.start();
+    }
+
+    /**
+     * Method to get the port the service listens on.
+     *
+     * @return the bound port
+     */
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * Method to stop listening. Requests being handled are given a second to finish.
+     */
+    @Override
+    public void close() {
+        if (this.server != null) {
+            this.server.stop(1);
+            this.executor.shutdown();
+            this.server = null;
+        }
+    }
+
+    /**
+     * One endpoint: it reads the request and returns the status and body of the response.
+     */
+    private interface Endpoint {
+        Response answer(HttpExchange exchange) throws IOException;
+    }
+
+    private static class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        Response response;
+        try {
+            response = endpoint.answer(exchange);
+        } catch (IllegalArgumentException e) {
+            response = new Response(400, e.getMessage() + "\n");
+        } catch (RuntimeException e) {
+            response = new Response(500, "internal error: " + e + "\n");
+        }
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private Response hasRoute(HttpExchange exchange) {
+        HashMap<String, String> query = parseQuery(exchange);
+        String from = required(query, "from");
+        String to = required(query, "to");
+        return new Response(200, (this.route(from, to) != null) + "\n");
+    }
+
+    private Response getRoute(HttpExchange exchange) {
+        HashMap<String, String> query = parseQuery(exchange);
+        String from = required(query, "from");
+        String to = required(query, "to");
+        List<String> route = this.route(from, to);
+        if (route == null) {
+            return new Response(404, "No route found from \"" + from + "\" to \"" + to + "\"\n");
+        }
+        return new Response(200, String.join("\n", route) + "\n");
+    }
+
+    private Response findSchedule(HttpExchange exchange) {
+        CsrGraph snapshot = this.snapshot();
+        StringBuilder body = new StringBuilder();
+        try {
+            ArrayList<HashSet<String>> schedule = Scheduler.findSchedule(snapshot);
+            for (int instructor = 0; instructor < 2; instructor++) {
+                for (String lab : schedule.get(instructor)) {
+                    body.append(instructor).append('\t').append(lab).append('\n');
+                }
+            }
+            return new Response(200, body.toString());
+        } catch (NoScheduleException e) {
+            for (String lab : e.getOddCycle()) {
+                body.append(lab).append('\n');
+            }
+            return new Response(409, body.toString());
+        }
+    }
+
+    private Response checkValidity(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            throw new IllegalArgumentException("checkValidity expects a POST");
+        }
+        ArrayList<HashSet<String>> proposedAlloc = new ArrayList<>();
+        proposedAlloc.add(new HashSet<>());
+        proposedAlloc.add(new HashSet<>());
+        for (String line : readBody(exchange).split("\n")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            int tab = line.indexOf('\t');
+            if (tab != 1 || (line.charAt(0) != '0' && line.charAt(0) != '1')) {
+                throw new IllegalArgumentException("malformed allocation line: " + line);
+            }
+            proposedAlloc.get(line.charAt(0) - '0').add(line.substring(2));
+        }
+        boolean valid = this.snapshot().validator().isValid(proposedAlloc);
+        return new Response(200, valid + "\n");
+    }
+
+    /**
+     * Finds a shortest route by label, sharing the search with concurrent queries
+     * from the same source.
+     *
+     * @return the labels along the route, or null if there is none
+     */
+    private List<String> route(String fromNodeLabel, String toNodeLabel) {
+        CsrGraph snapshot = this.snapshot();
+        int from = snapshot.idOf(fromNodeLabel);
+        int to = snapshot.idOf(toNodeLabel);
+        if (from == -1 || to == -1) {
+            return null;
+        }
+        int[] path = this.path(snapshot, from, to);
+        if (path == null) {
+            return null;
+        }
+        ArrayList<String> route = new ArrayList<>(path.length);
+        for (int id : path) {
+            route.add(snapshot.labelOf(id));
+        }
+        return route;
+    }
+
+    /**
+     * Joins the search from a source that is already running on the same snapshot,
+     * or runs one that the queries arriving meanwhile can join.
+     */
+    private int[] path(CsrGraph snapshot, int from, int to) {
+        Query mine = new Query(to);
+        Traversal traversal = new Traversal(snapshot, from, mine);
+        Traversal running = this.traversals.putIfAbsent(from, traversal);
+        if (running == null) {
+            this.run(traversal);
+        } else if (running.snapshot == snapshot && running.join(mine)) {
+            this.traversalJoined(snapshot.labelOf(from));
+        } else {
+            // the running search is over another snapshot, or has just stopped
+            BfsEngine engine = this.acquireEngine();
+            try {
+                return engine.route(snapshot, from, to);
+            } finally {
+                this.engines.add(engine);
+            }
+        }
+        return mine.path.join();
+    }
+
+    /**
+     * Advances the search of a traversal to the target of every query that joins
+     * it, in turn, and stops once none is left.
+     */
+    private void run(Traversal traversal) {
+        BfsEngine engine = this.acquireEngine();
+        try {
+            this.traversalStarted(traversal.snapshot.labelOf(traversal.from));
+            engine.start(traversal.snapshot, traversal.from, false);
+            for (Query query = traversal.next(); query != null; query = traversal.next()) {
+                boolean found = engine.advanceTo(traversal.snapshot, query.to);
+                query.path.complete(found ? engine.pathTo(query.to) : null);
+            }
+        } catch (RuntimeException e) {
+            traversal.fail(e);
+            throw e;
+        } finally {
+            this.traversals.remove(traversal.from, traversal);
+            this.engines.add(engine);
+        }
+    }
+
+    /**
+     * Method called on the thread that starts a route search, before it searches.
+     * It does nothing; a subclass can override it to watch searches being shared.
+     *
+     * @param fromNodeLabel the source of the search
+     */
+    protected void traversalStarted(String fromNodeLabel) {
+    }
+
+    /**
+     * Method called when a route query joins the search already running from its
+     * source instead of starting one. It does nothing; a subclass can override it
+     * to watch searches being shared.
+     *
+     * @param fromNodeLabel the source of the search
+     */
+    protected void traversalJoined(String fromNodeLabel) {
+    }
+
+    private BfsEngine acquireEngine() {
+        BfsEngine engine = this.engines.poll();
+        return engine == null ? new BfsEngine() : engine;
+    }
+
+    /**
+     * Returns the shared snapshot, taking a new one if the graph changed and the
+     * refresh interval has passed. Only one handler takes it; the others that find
+     * the snapshot out of date meanwhile wait and then use the new one.
+     */
+    private CsrGraph snapshot() {
+        Snapshot last = this.latest;
+        if (last != null && this.isFresh(last)) {
+            return last.graph;
+        }
+        synchronized (this.snapshotLock) {
+            last = this.latest;
+            if (last != null && this.isFresh(last)) {
+                return last.graph;
+            }
+            // the epoch is read first, so edges added during the copy make the next call copy again
+            long epoch = this.theGraph.modificationEpoch();
+            Snapshot next = new Snapshot(this.theGraph.freeze(), epoch, System.nanoTime());
+            this.latest = next;
+            return next.graph;
+        }
+    }
+
+    private boolean isFresh(Snapshot snapshot) {
+        return System.nanoTime() - snapshot.takenNanos < this.refreshNanos
+                || snapshot.epoch == this.theGraph.modificationEpoch();
+    }
+
+    /**
+     * Creates an executor that runs every task on a new virtual thread. Virtual
+     * threads are looked up reflectively so that the service still runs, on a
+     * cached pool of platform threads, on JDKs that do not have them.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static HashMap<String, String> parseQuery(HttpExchange exchange) {
+        HashMap<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) {
+            return query;
+        }
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static String required(HashMap<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("missing query parameter: " + name);
+        }
+        return value;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            in.transferTo(body);
+        }
+        return body.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method to load a constraints CSV file and serve it until the process is stopped.
+     *
+     * @param args the CSV file and, optionally, the port to listen on (8080 by default)
+     * @throws IOException if the file cannot be read or the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: QueryService <constraints.csv> [port]");
+            System.exit(2);
+        }
+        IGraph graph = new ConcurrentGraph(args[0], true);
+        new CsvEdgeLoader().load(Paths.get(args[0]), graph);
+        QueryService service = new QueryService(graph);
+        service.start(args.length > 1 ? Integer.parseInt(args[1]) : 8080);
+        System.out.println("Serving " + graph.nodeCount() + " labs on http://localhost:" + service.getPort());
+    }
+}
@@ -0,0 +1,248 @@
+package sol;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * ReachabilityIndex class. It precomputes the transitive closure of a graph so that
+ * asking whether one node reaches another is a single bit test instead of a BFS.
+ * Nodes of a strongly connected component reach exactly the same nodes, so the
+ * closure is kept per component: the components are found with Tarjan's algorithm,
+ * which numbers them in reverse topological order, and the row of every component
+ * is the bitwise OR of the rows of the components it has edges to. Components are
+ * grouped by their height in the condensation, and all rows of one height are
+ * filled in parallel, since they only read rows of lower heights.
+ * The rows take C * C / 8 bytes for C components. When that exceeds the memory
+ * budget no rows are built and every query falls back to a BFS over the graph.
+ * The index is a snapshot: it must be rebuilt after edges are added to the graph.
+ */
+public class ReachabilityIndex {
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+    private static final int PARALLEL_LEVEL_SIZE = 64; // smaller levels are filled on the calling thread
+
+    private final IGraph theGraph;
+    private final int[] componentOf; // the component of every node id, or null without rows
+    private final long[][] rows; // rows[c] holds a bit for every component that c reaches, or null
+
+
+    /**
+     * Constructor of the ReachabilityIndex class, with the default memory budget.
+     *
+     * @param theGraph the graph to index, which must not change afterwards
+     */
+    public ReachabilityIndex(IGraph theGraph) {
+        this(theGraph, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Constructor of the ReachabilityIndex class.
+     *
+     * @param theGraph the graph to index, which must not change afterwards
+     * @param maxBytes the most memory the closure rows may take before the index
+     *                 gives up and answers with BFS instead
+     */
+    public ReachabilityIndex(IGraph theGraph, long maxBytes) {
+        this.theGraph = theGraph;
+        CsrGraph csr = theGraph.freeze();
+        int[] components = new int[csr.nodeCount()];
+        int componentCount = strongComponents(csr, components);
+        long words = (componentCount + 63) >>> 6;
+        if (words * 8 * componentCount > maxBytes) {
+            this.componentOf = null;
+            this.rows = null;
+            return;
+        }
+        this.componentOf = components;
+        this.rows = new long[componentCount][];
+        this.fillRows(csr, componentCount);
+    }
+
+    /**
+     * Method to check whether the closure rows were built within the memory budget.
+     *
+     * @return true if queries are bit tests, false if they fall back to BFS
+     */
+    public boolean isIndexed() {
+        return this.rows != null;
+    }
+
+    /**
+     * Method to check whether there is a path from one node id to another.
+     *
+     * @param from the id of the node from which to start searching
+     * @param to   the id of the node we want to reach
+     * @return boolean indicating whether such a route exists
+     */
+    public boolean reaches(int from, int to) {
+        if (from == to) {
+            return true;
+        }
+        if (this.rows == null) {
+            return GraphUtils.ENGINE.get().reaches(this.theGraph, from, to);
+        }
+        int target = this.componentOf[to];
+        return (this.rows[this.componentOf[from]][target >>> 6] & (1L << target)) != 0;
+    }
+    /*
+    Constant Time O(1) when indexed
+    Two array reads and one bit test. Without the rows it is a BFS, linear in N + E.
+     */
+
+    /**
+     * Method to get the graph this index answers for.
+     *
+     * @return the indexed graph
+     */
+    public IGraph getGraph() {
+        return this.theGraph;
+    }
+
+    /**
+     * Finds the strongly connected components with an iterative Tarjan's algorithm,
+     * so deep graphs do not overflow the stack. A component is numbered when it is
+     * completed, after every component it has edges to, so edges between components
+     * always lead to a smaller number.
+     *
+     * @param csr        the graph
+     * @param components filled with the component of every node
+     * @return the number of components
+     */
+    private static int strongComponents(CsrGraph csr, int[] components) {
+        int nodeCount = csr.nodeCount();
+        int[] offsets = csr.offsets;
+        int[] targets = csr.targets;
+        int[] order = new int[nodeCount]; // 1 + the visit order of every node, 0 if unvisited
+        int[] low = new int[nodeCount];
+        int[] stack = new int[nodeCount]; // the nodes not yet assigned to a component
+        int[] calls = new int[nodeCount]; // the DFS path
+        int[] cursors = new int[nodeCount]; // the next edge to look at for every node on the path
+        Arrays.fill(components, -1);
+        int visited = 0;
+        int stackSize = 0;
+        int componentCount = 0;
+        for (int start = 0; start < nodeCount; start++) {
+            if (order[start] != 0) {
+                continue;
+            }
+            int depth = 0;
+            order[start] = low[start] = ++visited;
+            stack[stackSize++] = start;
+            calls[depth] = start;
+            cursors[depth++] = offsets[start];
+            while (depth > 0) {
+                int v = calls[depth - 1];
+                if (cursors[depth - 1] < offsets[v + 1]) {
+                    int w = targets[cursors[depth - 1]++];
+                    if (order[w] == 0) {
+                        order[w] = low[w] = ++visited;
+                        stack[stackSize++] = w;
+                        calls[depth] = w;
+                        cursors[depth++] = offsets[w];
+                    } else if (components[w] == -1) { // still on the stack
+                        low[v] = Math.min(low[v], order[w]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = calls[depth - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+                if (low[v] == order[v]) {
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        components[w] = componentCount;
+                    } while (w != v);
+                    componentCount++;
+                }
+            }
+        }
+        return componentCount;
+    }
+
+    /**
+     * Fills the closure row of every component, one height of the condensation at a time.
+     */
+    private void fillRows(CsrGraph csr, int componentCount) {
+        int nodeCount = csr.nodeCount();
+        int[] offsets = csr.offsets;
+        int[] targets = csr.targets;
+        int[] memberStarts = new int[componentCount + 1];
+        int[] members = group(this.componentOf, nodeCount, componentCount, memberStarts);
+
+        // the height of a component is 0 without outgoing edges, else 1 + the highest it reaches
+        int[] heights = new int[componentCount];
+        int heightCount = 1;
+        for (int c = 0; c < componentCount; c++) {
+            for (int m = memberStarts[c]; m < memberStarts[c + 1]; m++) {
+                int u = members[m];
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    int d = this.componentOf[targets[e]];
+                    if (d != c) {
+                        heights[c] = Math.max(heights[c], heights[d] + 1);
+                    }
+                }
+            }
+            heightCount = Math.max(heightCount, heights[c] + 1);
+        }
+        int[] levelStarts = new int[heightCount + 1];
+        int[] levels = group(heights, componentCount, heightCount, levelStarts);
+
+        int words = (componentCount + 63) >>> 6;
+        for (int h = 0; h < heightCount; h++) {
+            IntStream level = IntStream.range(levelStarts[h], levelStarts[h + 1]);
+            if (levelStarts[h + 1] - levelStarts[h] >= PARALLEL_LEVEL_SIZE) {
+                level = level.parallel();
+            }
+            level.forEach(i -> {
+                int c = levels[i];
+                long[] row = new long[words];
+                row[c >>> 6] |= 1L << c;
+                for (int m = memberStarts[c]; m < memberStarts[c + 1]; m++) {
+                    int u = members[m];
+                    for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                        int d = this.componentOf[targets[e]];
+                        // a component already in the row brought its whole row along
+                        if ((row[d >>> 6] & (1L << d)) == 0) {
+                            long[] reached = this.rows[d];
+                            for (int w = 0; w < words; w++) {
+                                row[w] |= reached[w];
+                            }
+                        }
+                    }
+                }
+                this.rows[c] = row;
+            });
+        }
+    }
+    /*
+    Time O(N + E + C * E' / 64) where E' is the number of edges between components
+    Every edge between components ORs at most one row of C / 64 words, and the rows of one
+    height are shared out between the threads of the common pool.
+     */
+
+    /**
+     * Counting sort of the indexes 0 .. count - 1 by their key.
+     *
+     * @param keys     the key of every index, in [0, keyCount)
+     * @param count    the number of indexes
+     * @param keyCount the number of keys
+     * @param starts   filled with where every key starts in the result, with keyCount + 1 entries
+     * @return the indexes, grouped by key
+     */
+    private static int[] group(int[] keys, int count, int keyCount, int[] starts) {
+        for (int i = 0; i < count; i++) {
+            starts[keys[i] + 1]++;
+        }
+        for (int k = 0; k < keyCount; k++) {
+            starts[k + 1] += starts[k];
+        }
+        int[] next = Arrays.copyOf(starts, keyCount);
+        int[] grouped = new int[count];
+        for (int i = 0; i < count; i++) {
+            grouped[next[keys[i]]++] = i;
+        }
+        return grouped;
+    }
+}
@@ -0,0 +1,306 @@
+package sol;
+
+import java.util.Arrays;
+
+/**
+ * RouteCache class. It remembers the answers of recent route queries on one graph,
+ * keyed by the pair of node ids packed into a long, and evicts the least recently
+ * used answer once it holds capacity of them.
+ * Entries live in fixed slots: an open-addressing table maps a key to its slot and
+ * the slots are chained in recency order through two int arrays, so a lookup does
+ * not allocate. A route answers later reachability queries for the same pair, and
+ * a missing route answers later route queries as well.
+ * Whenever the modification epoch of the graph has changed since the last query,
+ * the whole cache is dropped before answering. The cache can be shared between
+ * threads; searches run outside of its lock.
+ */
+public class RouteCache {
+    private static final byte NO_ROUTE = 0;
+    private static final byte REACHES = 1;
+
+    private final IGraph theGraph;
+    private final int capacity;
+    private final long[] keys; // (from << 32) | to of every slot
+    private final byte[] answers; // NO_ROUTE or REACHES for every slot
+    private final int[][] paths; // the route of every slot, or null if only reachability is known
+    private final int[] newer; // the slot used right after every slot, or -1
+    private final int[] older; // the slot used right before every slot, or -1
+    private final int[] table; // slot + 1 for every key, or 0 if empty
+    private int newest = -1;
+    private int oldest = -1;
+    private int size;
+    private long epoch;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+
+    /**
+     * Constructor of the RouteCache class.
+     *
+     * @param theGraph the graph to answer queries on
+     * @param capacity the most answers to keep
+     */
+    public RouteCache(IGraph theGraph, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.theGraph = theGraph;
+        this.capacity = capacity;
+        this.keys = new long[capacity];
+        this.answers = new byte[capacity];
+        this.paths = new int[capacity][];
+        this.newer = new int[capacity];
+        this.older = new int[capacity];
+        this.table = new int[Integer.highestOneBit(capacity) * 4];
+        this.epoch = theGraph.modificationEpoch();
+    }
+
+    /**
+     * Method to get the graph this cache answers for.
+     *
+     * @return the cached graph
+     */
+    public IGraph getGraph() {
+        return this.theGraph;
+    }
+
+    /**
+     * Method to check whether there is a path from one node id to another.
+     *
+     * @param from the id of the node from which to start searching
+     * @param to   the id of the node we want to reach
+     * @return boolean indicating whether such a route exists
+     */
+    public boolean reaches(int from, int to) {
+        long key = key(from, to);
+        long seenEpoch;
+        synchronized (this) {
+            int slot = this.lookup(key);
+            if (slot != -1) {
+                this.hits++;
+                return this.answers[slot] == REACHES;
+            }
+            this.misses++;
+            seenEpoch = this.epoch;
+        }
+        boolean reaches = GraphUtils.ENGINE.get().reaches(this.theGraph, from, to);
+        synchronized (this) {
+            this.store(key, reaches ? REACHES : NO_ROUTE, null, seenEpoch);
+        }
+        return reaches;
+    }
+
+    /**
+     * Method to compute a shortest path from one node id to another.
+     *
+     * @param from the id of the node from which to start searching
+     * @param to   the id of the node we want to reach
+     * @return the ids along the path, from first, or null if no such path exists
+     */
+    public int[] route(int from, int to) {
+        long key = key(from, to);
+        long seenEpoch;
+        synchronized (this) {
+            int slot = this.lookup(key);
+            if (slot != -1 && (this.answers[slot] == NO_ROUTE || this.paths[slot] != null)) {
+                this.hits++;
+                return this.answers[slot] == NO_ROUTE ? null : this.paths[slot].clone();
+            }
+            this.misses++;
+            seenEpoch = this.epoch;
+        }
+        int[] path = GraphUtils.ENGINE.get().route(this.theGraph, from, to);
+        synchronized (this) {
+            this.store(key, path == null ? NO_ROUTE : REACHES, path, seenEpoch);
+        }
+        return path == null ? null : path.clone();
+    }
+
+    /**
+     * Method to get the number of queries answered from the cache.
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Method to get the number of queries that had to search the graph.
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Method to get the number of answers dropped to make room for newer ones.
+     *
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Method to get the number of times the cache was dropped because the graph changed.
+     *
+     * @return the number of invalidations
+     */
+    public synchronized long getInvalidations() {
+        return this.invalidations;
+    }
+
+    /**
+     * Method to get the number of answers currently cached.
+     *
+     * @return the number of cached answers
+     */
+    public synchronized int size() {
+        this.checkEpoch();
+        return this.size;
+    }
+
+    /**
+     * Finds the slot of a key and marks it as the most recently used, after
+     * dropping everything if the graph has changed.
+     *
+     * @return the slot of the key, or -1 if it is not cached
+     */
+    private int lookup(long key) {
+        this.checkEpoch();
+        int slot = this.find(key);
+        if (slot != -1 && slot != this.newest) {
+            this.unlink(slot);
+            this.linkNewest(slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Caches an answer, replacing the answer already cached for the key if any.
+     * The answer is dropped if the graph changed while it was being computed.
+     */
+    private void store(long key, byte answer, int[] path, long seenEpoch) {
+        this.checkEpoch();
+        if (this.epoch != seenEpoch) {
+            return;
+        }
+        int slot = this.find(key);
+        if (slot == -1) {
+            if (this.size < this.capacity) {
+                slot = this.size++;
+            } else {
+                slot = this.oldest;
+                this.unlink(slot);
+                this.remove(this.keys[slot]);
+                this.evictions++;
+            }
+            this.keys[slot] = key;
+            this.insert(key, slot);
+            this.paths[slot] = null;
+        } else {
+            this.unlink(slot);
+        }
+        this.answers[slot] = answer;
+        if (path != null) {
+            this.paths[slot] = path;
+        }
+        this.linkNewest(slot);
+    }
+
+    /**
+     * Drops every answer if the graph has been modified since they were computed.
+     */
+    private void checkEpoch() {
+        long current = this.theGraph.modificationEpoch();
+        if (current == this.epoch) {
+            return;
+        }
+        this.epoch = current;
+        if (this.size > 0) {
+            Arrays.fill(this.table, 0);
+            Arrays.fill(this.paths, 0, this.size, null);
+            this.size = 0;
+            this.newest = -1;
+            this.oldest = -1;
+            this.invalidations++;
+        }
+    }
+
+    private int find(long key) {
+        int mask = this.table.length - 1;
+        for (int i = mix(key) & mask; this.table[i] != 0; i = (i + 1) & mask) {
+            if (this.keys[this.table[i] - 1] == key) {
+                return this.table[i] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(long key, int slot) {
+        int mask = this.table.length - 1;
+        int i = mix(key) & mask;
+        while (this.table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        this.table[i] = slot + 1;
+    }
+
+    /**
+     * Removes a key from the table, shifting later entries of its probe run back
+     * into the hole so that lookups never stop early at it.
+     */
+    private void remove(long key) {
+        int mask = this.table.length - 1;
+        int hole = mix(key) & mask;
+        while (this.keys[this.table[hole] - 1] != key) {
+            hole = (hole + 1) & mask;
+        }
+        for (int i = (hole + 1) & mask; this.table[i] != 0; i = (i + 1) & mask) {
+            int home = mix(this.keys[this.table[i] - 1]) & mask;
+            // the entry at i may move to the hole only if its home is not between them
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                this.table[hole] = this.table[i];
+                hole = i;
+            }
+        }
+        this.table[hole] = 0;
+    }
+
+    private void unlink(int slot) {
+        if (this.newer[slot] != -1) {
+            this.older[this.newer[slot]] = this.older[slot];
+        } else {
+            this.newest = this.older[slot];
+        }
+        if (this.older[slot] != -1) {
+            this.newer[this.older[slot]] = this.newer[slot];
+        } else {
+            this.oldest = this.newer[slot];
+        }
+    }
+
+    private void linkNewest(int slot) {
+        this.older[slot] = this.newest;
+        this.newer[slot] = -1;
+        if (this.newest != -1) {
+            this.newer[this.newest] = slot;
+        } else {
+            this.oldest = slot;
+        }
+        this.newest = slot;
+    }
+
+    private static long key(int from, int to) {
+        return ((long) from << 32) | (to & 0xFFFFFFFFL);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
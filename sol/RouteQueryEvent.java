@@ -0,0 +1,38 @@
+package sol;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * RouteQueryEvent class. It is the Flight Recorder event of one route query of
+ * GraphUtils: hasRoute or getRoute on a graph or an index, getRouteBidirectional,
+ * getWeightedRoute or getRouteWeight. Its duration is the time the call took.
+ */
+@Name("sol.RouteQuery")
+@Label("Route Query")
+@Category("Lab Scheduling")
+@Description("A hasRoute or getRoute call")
+@StackTrace(false)
+class RouteQueryEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("From")
+    String from;
+
+    @Label("To")
+    String to;
+
+    @Label("Found")
+    boolean found;
+
+    @Label("Nodes Visited")
+    int nodesVisited;
+
+    @Label("Edges Scanned")
+    long edgesScanned;
+}
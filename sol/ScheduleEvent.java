@@ -0,0 +1,33 @@
+package sol;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * ScheduleEvent class. It is the Flight Recorder event of one findSchedule,
+ * checkValidity or checkValidityBatch call of Scheduler; its duration is the
+ * time the call took.
+ */
+@Name("sol.ScheduleOperation")
+@Label("Schedule Operation")
+@Category("Lab Scheduling")
+@Description("A findSchedule, checkValidity or checkValidityBatch call")
+@StackTrace(false)
+class ScheduleEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Labs")
+    int labs;
+
+    @Label("Instructors")
+    int instructors;
+
+    @Label("Success")
+    @Description("Whether a schedule was found, or the allocation is valid")
+    boolean success;
+}
@@ -1,6 +1,7 @@
 package sol;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import src.NoScheduleException;
 
@@ -27,6 +28,18 @@ public class Scheduler {
      * @return boolean indicating whether the proposed allocation is valid
      */
     public static boolean checkValidity(IGraph theGraph, ArrayList<HashSet<String>> proposedAlloc) {
+        ScheduleEvent event = new ScheduleEvent();
+        event.begin();
+        long start = GraphMetrics.start();
+        boolean valid = isValidSplit(theGraph, proposedAlloc);
+        record(GraphMetrics.Operation.CHECK_VALIDITY, event, start, countLabs(proposedAlloc), 2, valid);
+        return valid;
+    }
+
+    /**
+     * Method which checks a split between two instructors by label, for checkValidity.
+     */
+    private static boolean isValidSplit(IGraph theGraph, ArrayList<HashSet<String>> proposedAlloc) {
         if (proposedAlloc.size() != 2)
             return false;
         for (String lab : proposedAlloc.get(0)) {
@@ -48,6 +61,60 @@ public class Scheduler {
         return true;
     }
 
+    /**
+     * Method which checks if a given allocation of labs between any number of
+     * instructors adheres to the scheduling constraints of the graph: no lab is
+     * given to two instructors, and every lab given to an instructor only conflicts
+     * with labs given to other instructors. With two instructors this is the same
+     * check as checkValidity. Labs that are not valid labels in theGraph make the
+     * allocation invalid.
+     *
+     * @param theGraph      the graph to try to schedule
+     * @param proposedAlloc the proposed labs of every instructor
+     * @param instructors   the number of instructors the allocation must have
+     * @return boolean indicating whether the proposed allocation is valid
+     */
+    public static boolean checkValidity(IGraph theGraph, ArrayList<HashSet<String>> proposedAlloc,
+                                        int instructors) {
+        ScheduleEvent event = new ScheduleEvent();
+        event.begin();
+        long start = GraphMetrics.start();
+        boolean valid = theGraph.freeze().validator().isValid(proposedAlloc, instructors);
+        record(GraphMetrics.Operation.CHECK_VALIDITY, event, start, countLabs(proposedAlloc), instructors, valid);
+        return valid;
+    }
+    /*
+    Linear Time O(N + E)
+    Every lab is hashed once to find its id, and the constraints of every assigned lab
+    are scanned once as ids, over the frozen graph that freeze() keeps between calls,
+    with the validator and per-thread arrays that the frozen graph keeps too.
+     */
+
+    /**
+     * Method which checks many proposed allocations of labs against the same graph,
+     * like calling checkValidity on each, but building an int-indexed adjacency
+     * once and validating the allocations in parallel. Labs that are not valid
+     * labels in theGraph make their allocation invalid.
+     *
+     * @param theGraph       the graph to try to schedule
+     * @param proposedAllocs the proposed allocations of labs between Kathi and Elijah
+     * @return the verdict of every allocation, in the same order
+     */
+    public static boolean[] checkValidityBatch(IGraph theGraph, List<ArrayList<HashSet<String>>> proposedAllocs) {
+        ScheduleEvent event = new ScheduleEvent();
+        event.begin();
+        long start = GraphMetrics.start();
+        boolean[] verdicts = theGraph.freeze().validator().validateAll(proposedAllocs);
+        int labs = 0;
+        boolean valid = true;
+        for (int i = 0; i < verdicts.length; i++) {
+            labs += countLabs(proposedAllocs.get(i));
+            valid &= verdicts[i];
+        }
+        record(GraphMetrics.Operation.CHECK_VALIDITY, event, start, labs, 2, valid);
+        return verdicts;
+    }
+
     /**
      * Method to compute a valid split of the graph nodes
      * without violating scheduling constraints,
@@ -57,49 +124,153 @@ public class Scheduler {
      * @param theGraph the graph to try to schedule
      * @return an ArrayList of HashSets of node labels that constitute a
      * valid split of the graph
-     * @throws NoScheduleException if no such split exists
+     * @throws NoScheduleException carrying an odd cycle, if no such split exists
      */
     public static ArrayList<HashSet<String>> findSchedule(IGraph theGraph)
             throws NoScheduleException {
-        ArrayList<String> toVisit = theGraph.getAllNodes();
-        HashSet<String> kathi = new HashSet<>();
-        HashSet<String> elijah = new HashSet<>();
-        ArrayList<HashSet<String>> schedule = new ArrayList<>();
-        schedule.add(kathi);
-        schedule.add(elijah);
-        HashMap<String,Integer> allocator = new HashMap<>();
-        while (!toVisit.isEmpty()) {
-            Queue<String> queuing = new LinkedList<>();
-            String node = toVisit.get(0);
-            queuing.add(node);
-            while (!queuing.isEmpty()) {
-                node = queuing.peek();
-                queuing.remove(node);
-                int instructor;
-                if(!toVisit.contains(node)) {
-                    instructor = allocator.get(node);
-                }
-                else{
-                    instructor = 0;
-                    allocator.put(node, 0);
-                    schedule.get(0).add(node);
-                }
-                toVisit.remove(node);
-                for (String neighbor : theGraph.getNeighbors(node)) {
-                    if (schedule.get(0).contains(neighbor) && (instructor+1)%2 == 1 || schedule.get(1).contains(neighbor) && (instructor+1)%2 == 0)
-                        throw new NoScheduleException();
-                    if(toVisit.contains(neighbor)) {
-                        schedule.get((instructor + 1) % 2).add(neighbor);
-                        allocator.put(neighbor, (instructor + 1) % 2);
-                        queuing.add(neighbor);
-                        toVisit.remove(neighbor);
-                    }
-                }
-            }
+        return schedule(theGraph, 2, () -> BipartiteColorer.color(theGraph));
+    }
+    /*
+    Linear Time O(N + E)
+    The runtime depends on the number of labs (N) and constraints (E) in theGraph.
+    BipartiteColorer enqueues every lab once and looks at every constraint once, and
+    each lab is then added to its instructor's HashSet in constant time.
+     */
+
+    /**
+     * Method to compute a valid split of the graph nodes like findSchedule, with
+     * the option to go on after the first conflict so that the NoScheduleException
+     * lists an odd cycle for every conflicting component, still in a single pass.
+     * Throws a NoScheduleException if no such split exists
+     *
+     * @param theGraph            the graph to try to schedule
+     * @param collectAllConflicts false to stop at the first odd cycle, true to find
+     *                            one in every conflicting component
+     * @return an ArrayList of HashSets of node labels that constitute a
+     * valid split of the graph
+     * @throws NoScheduleException carrying the odd cycles found, if no such split exists
+     */
+    public static ArrayList<HashSet<String>> findSchedule(IGraph theGraph, boolean collectAllConflicts)
+            throws NoScheduleException {
+        return schedule(theGraph, 2, () -> BipartiteColorer.color(theGraph, collectAllConflicts));
+    }
+
+    /**
+     * Method to compute a valid split of the graph nodes like findSchedule, but
+     * discovering the connected components and coloring them concurrently on the
+     * given pool. Every remaining task is cancelled as soon as one component turns
+     * out to have no valid split.
+     * Throws a NoScheduleException if no such split exists
+     *
+     * @param theGraph the graph to try to schedule, which must not change meanwhile
+     * @param pool     the pool to run the coloring tasks on
+     * @return an ArrayList of HashSets of node labels that constitute a
+     * valid split of the graph
+     * @throws NoScheduleException if no such split exists
+     */
+    public static ArrayList<HashSet<String>> findScheduleParallel(IGraph theGraph, ForkJoinPool pool)
+            throws NoScheduleException {
+        return schedule(theGraph, 2, () -> ParallelBipartiteColorer.color(theGraph, pool));
+    }
+
+    /**
+     * Method to compute a valid split of the graph nodes between the given number
+     * of instructors. Two instructors are split exactly, like findSchedule; more
+     * are assigned with the DSATUR heuristic of DsaturColorer, which may miss a
+     * split that exists. A single instructor can only take a graph without constraints.
+     * Throws a NoScheduleException if no such split was found
+     *
+     * @param theGraph    the graph to try to schedule, which must not change meanwhile
+     * @param instructors the number of instructors, from 1 to DsaturColorer.MAX_INSTRUCTORS
+     * @return an ArrayList with the HashSet of node labels of every instructor,
+     * which constitute a valid split of the graph
+     * @throws NoScheduleException if no such split was found, carrying an odd
+     * cycle when there are two instructors
+     */
+    public static ArrayList<HashSet<String>> findSchedule(IGraph theGraph, int instructors)
+            throws NoScheduleException {
+        return schedule(theGraph, instructors, () -> instructors == 2
+                ? BipartiteColorer.color(theGraph)
+                : DsaturColorer.color(theGraph, instructors));
+    }
+    /*
+    Linear Time O(N + E + k)
+    Both colorers look at every lab and every constraint a constant number of times,
+    and each lab is then added to its instructor's HashSet in constant time.
+     */
+
+    /**
+     * Method to compute a valid split of the graph nodes in parallel on the common pool.
+     * Throws a NoScheduleException if no such split exists
+     *
+     * @param theGraph the graph to try to schedule, which must not change meanwhile
+     * @return an ArrayList of HashSets of node labels that constitute a
+     * valid split of the graph
+     * @throws NoScheduleException if no such split exists
+     */
+    public static ArrayList<HashSet<String>> findScheduleParallel(IGraph theGraph)
+            throws NoScheduleException {
+        return findScheduleParallel(theGraph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * One way of coloring the graph, so that every findSchedule variant is counted the same way.
+     */
+    private interface Coloring {
+        byte[] color() throws NoScheduleException;
+    }
+
+    /**
+     * Method to run a coloring and turn it into the sets of labels, counting the
+     * call in GraphMetrics and committing its event, if either is enabled.
+     */
+    private static ArrayList<HashSet<String>> schedule(IGraph theGraph, int instructors, Coloring coloring)
+            throws NoScheduleException {
+        ScheduleEvent event = new ScheduleEvent();
+        event.begin();
+        long start = GraphMetrics.start();
+        boolean found = false;
+        try {
+            ArrayList<HashSet<String>> schedule = toSchedule(theGraph, coloring.color(), instructors);
+            found = true;
+            return schedule;
+        } finally {
+            record(GraphMetrics.Operation.FIND_SCHEDULE, event, start, theGraph.nodeCount(), instructors, found);
         }
-        return schedule;
     }
 
+    private static void record(GraphMetrics.Operation operation, ScheduleEvent event, long start, int labs,
+                               int instructors, boolean success) {
+        GraphMetrics.record(operation, start, success, labs, 0);
+        if (event.shouldCommit()) {
+            event.operation = operation.name();
+            event.labs = labs;
+            event.instructors = instructors;
+            event.success = success;
+            event.commit();
+        }
+    }
 
+    private static int countLabs(ArrayList<HashSet<String>> proposedAlloc) {
+        int labs = 0;
+        for (HashSet<String> instructorLabs : proposedAlloc) {
+            labs += instructorLabs.size();
+        }
+        return labs;
+    }
 
+    /**
+     * Method to turn the instructor of every node id into one set of labels per instructor.
+     */
+    private static ArrayList<HashSet<String>> toSchedule(IGraph theGraph, byte[] colors, int instructors) {
+        ArrayList<HashSet<String>> schedule = new ArrayList<>();
+        for (int instructor = 0; instructor < instructors; instructor++) {
+            schedule.add(new HashSet<>());
+        }
+        for (int id = 0; id < colors.length; id++) {
+            schedule.get(colors[id]).add(theGraph.labelOf(id));
+        }
+        return schedule;
     }
+
+}
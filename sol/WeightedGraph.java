@@ -0,0 +1,123 @@
+package sol;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This is WeightedGraph class. It is a NodeEdgeGraph whose edges carry a weight.
+ * The weights of a node are kept in a double[] parallel to the insertion order of
+ * its AdjacencySet, so the weight of an edge is found with the same hash probe as
+ * the edge itself, and walking the weighted neighbors of a node reads two arrays
+ * side by side. A node whose edges all weigh 1 needs no weight array at all.
+ */
+public class WeightedGraph extends NodeEdgeGraph implements IWeightedGraph {
+    private static final double DEFAULT_WEIGHT = 1.0;
+
+    private final ArrayList<double[]> weightsById; // the weights of every node's edges, or null while all weigh 1
+
+
+    /**
+     * WeightedGraph's constructor.
+     *
+     * @param name the name of the graph
+     */
+    public WeightedGraph(String name) {
+        this(name, false);
+    }
+
+    /**
+     * WeightedGraph's constructor.
+     *
+     * @param name         the name of the graph
+     * @param indexInEdges true to also keep the in-edges of every node, which makes
+     *                     predecessor queries as fast as neighbor queries
+     */
+    public WeightedGraph(String name, boolean indexInEdges) {
+        super(name, indexInEdges);
+        this.weightsById = new ArrayList<>();
+    }
+
+    /**
+     * Method to add a directed edge with a weight between the nodes associated with
+     * the given descriptions, creating the nodes if needed. If the edge already
+     * exists, its weight is replaced.
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     * @param weight the weight of the edge, finite and not negative
+     */
+    public void addDirectedEdge(String descr1, String descr2, double weight) {
+        if (!(weight >= 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("edge weights must be finite and not negative: " + weight);
+        }
+        this.addDirectedEdge(descr1, descr2);
+        Node fromNode = this.getNode(descr1);
+        int position = fromNode.nextNodes.indexOf(this.idOf(descr2));
+        while (this.weightsById.size() <= fromNode.id) {
+            this.weightsById.add(null);
+        }
+        double[] weights = this.weightsById.get(fromNode.id);
+        if (weights == null || weights.length <= position) {
+            if (weight == DEFAULT_WEIGHT) {
+                return; // the missing entry already stands for the default weight
+            }
+            int oldLength = weights == null ? 0 : weights.length;
+            double[] grown = new double[Math.max(position + 1, oldLength * 2)];
+            Arrays.fill(grown, oldLength, grown.length, DEFAULT_WEIGHT);
+            if (weights != null) {
+                System.arraycopy(weights, 0, grown, 0, oldLength);
+            }
+            weights = grown;
+            this.weightsById.set(fromNode.id, weights);
+        }
+        if (weights[position] != weight) {
+            weights[position] = weight;
+            this.epoch++;
+        }
+    }
+    /*
+    Constant Time O(1) amortized
+    The edge is added as in NodeEdgeGraph, and its position in the weight array is one
+    more hash probe of the same AdjacencySet. Weight arrays grow by doubling.
+     */
+
+    /**
+     * Method to add an undirected edge with a weight, as two directed edges of that weight.
+     *
+     * @param descr1 the source node for the edge
+     * @param descr2 the target node for the edge
+     * @param weight the weight of the edge, finite and not negative
+     */
+    public void addUndirectedEdge(String descr1, String descr2, double weight) {
+        this.addDirectedEdge(descr1, descr2, weight);
+        this.addDirectedEdge(descr2, descr1, weight);
+    }
+
+    @Override
+    public double getWeight(String descr1, String descr2) {
+        Node fromNode = this.getNode(descr1);
+        int to = this.idOf(descr2);
+        int position = fromNode == null || to == -1 ? -1 : fromNode.nextNodes.indexOf(to);
+        return position == -1 ? Double.NaN : this.weightAt(fromNode.id, position);
+    }
+
+    @Override
+    public void forEachWeightedNeighbor(int id, IntDoubleConsumer action) {
+        AdjacencySet nextNodes = this.nodesById.get(id).nextNodes;
+        int[] ids = nextNodes.array();
+        int degree = nextNodes.size();
+        double[] weights = id < this.weightsById.size() ? this.weightsById.get(id) : null;
+        int weighted = weights == null ? 0 : Math.min(degree, weights.length);
+        for (int i = 0; i < weighted; i++) {
+            action.accept(ids[i], weights[i]);
+        }
+        for (int i = weighted; i < degree; i++) {
+            action.accept(ids[i], DEFAULT_WEIGHT);
+        }
+    }
+
+    private double weightAt(int id, int position) {
+        double[] weights = id < this.weightsById.size() ? this.weightsById.get(id) : null;
+        return weights == null || weights.length <= position ? DEFAULT_WEIGHT : weights[position];
+    }
+}
@@ -1,7 +1,38 @@
 package src;
 
+import java.util.Collections;
+import java.util.List;
+
 public class NoScheduleException extends Exception{
+    private final List<List<String>> oddCycles;
+
     public NoScheduleException() {
         super("No schedule found");
+        this.oddCycles = Collections.emptyList();
+    }
+
+    /**
+     * @param oddCycles the labs along an odd cycle of every conflicting component
+     *                  found, in cycle order; must not be empty
+     */
+    public NoScheduleException(List<List<String>> oddCycles) {
+        super("No schedule found, odd cycle through " + oddCycles.get(0)
+                + (oddCycles.size() > 1 ? " and " + (oddCycles.size() - 1) + " more" : ""));
+        this.oddCycles = Collections.unmodifiableList(oddCycles);
+    }
+
+    /**
+     * @return the labs along the first odd cycle found, in cycle order (the last
+     *         lab conflicts with the first), or an empty list if none was recorded
+     */
+    public List<String> getOddCycle() {
+        return this.oddCycles.isEmpty() ? Collections.emptyList() : this.oddCycles.get(0);
+    }
+
+    /**
+     * @return one odd cycle for every conflicting component found
+     */
+    public List<List<String>> getOddCycles() {
+        return this.oddCycles;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,100 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sol.ConcurrentGraph;
+import sol.GraphUtils;
+import sol.IGraph;
+import sol.NodeEdgeGraph;
+import src.NodeNameExistsException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ConcurrentGraphTest {
+
+    @Test
+    public void testSimple() throws NodeNameExistsException {
+        IGraph graph = new ConcurrentGraph("a graph", true);
+        graph.addDirectedEdge("Providence", "Boston");
+        graph.addDirectedEdge("Providence", "Boston");
+        graph.addUndirectedEdge("Boston", "Worcester");
+        graph.addDirectedEdge("Worcester", "Worcester");
+        graph.addNode("Hartford");
+        Assert.assertThrows(NodeNameExistsException.class, () -> graph.addNode("Boston"));
+        Assert.assertEquals(Arrays.asList("Providence", "Boston", "Worcester", "Hartford"), graph.getAllNodes());
+        Assert.assertEquals(Arrays.asList("Boston"), graph.getNeighbors("Providence"));
+        Assert.assertEquals(Arrays.asList("Providence", "Worcester"), graph.getPredecessors("Boston"));
+        Assert.assertEquals(1, graph.countSelfEdges());
+        Assert.assertFalse(graph.reachesAllOthers("Boston"));
+        Assert.assertTrue(GraphUtils.hasRoute(graph, "Providence", "Worcester"));
+        Assert.assertFalse(GraphUtils.hasRoute(graph, "Worcester", "Providence"));
+        Assert.assertEquals(-1, graph.idOf("Portland"));
+    }
+
+    @Test
+    public void testParallelLoadWithQueries() throws Exception {
+        int threads = 4;
+        int edgesPerThread = 20000;
+        IGraph graph = new ConcurrentGraph("a concurrent graph", true);
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        AtomicBoolean loading = new AtomicBoolean(true);
+        // queries run while the loaders add edges, and must never fail
+        Future<?> reader = executor.submit(() -> {
+            Random random = new Random(0);
+            while (loading.get()) {
+                int nodeCount = graph.nodeCount();
+                if (nodeCount > 1) {
+                    String fromNode = graph.labelOf(random.nextInt(nodeCount));
+                    String toNode = graph.labelOf(random.nextInt(nodeCount));
+                    GraphUtils.hasRoute(graph, fromNode, toNode);
+                    for (String neighbor : graph.getNeighbors(fromNode)) {
+                        Assert.assertNotEquals(-1, graph.idOf(neighbor));
+                    }
+                }
+            }
+        });
+        List<Future<?>> loaders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            loaders.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < edgesPerThread; i++) {
+                    graph.addDirectedEdge("lab " + random.nextInt(2000), "lab " + random.nextInt(2000));
+                }
+            }));
+        }
+        for (Future<?> loader : loaders) {
+            loader.get();
+        }
+        loading.set(false);
+        reader.get();
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        IGraph expected = new NodeEdgeGraph("a sequential graph");
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(t);
+            for (int i = 0; i < edgesPerThread; i++) {
+                expected.addDirectedEdge("lab " + random.nextInt(2000), "lab " + random.nextInt(2000));
+            }
+        }
+        Assert.assertEquals(expected.nodeCount(), graph.nodeCount());
+        Assert.assertEquals(expected.countSelfEdges(), graph.countSelfEdges());
+        for (String label : expected.getAllNodes()) {
+            Assert.assertEquals(new HashSet<>(expected.getNeighbors(label)), new HashSet<>(graph.getNeighbors(label)));
+            Assert.assertEquals(expected.getNeighbors(label).size(), graph.getNeighbors(label).size());
+            Assert.assertEquals(new HashSet<>(expected.getPredecessors(label)),
+                    new HashSet<>(graph.getPredecessors(label)));
+        }
+    }
+}
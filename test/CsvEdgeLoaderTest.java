@@ -0,0 +1,45 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sol.CsvEdgeLoader;
+import sol.EdgeArrayGraph;
+import sol.IGraph;
+import sol.NodeEdgeGraph;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+public class CsvEdgeLoaderTest {
+    private static final String CONSTRAINTS =
+            "# lab constraints\n"
+            + "lab 1,lab 2\n"
+            + "lab 2, lab 3 ,directed\n"
+            + "\n"
+            + "\"lab, 4\",lab 1,false\n"
+            + "lab 3,lab 3,1\n";
+
+    @Test
+    public void testLoad() throws IOException {
+        IGraph[] graphs = {new NodeEdgeGraph("a graph"), new EdgeArrayGraph("a graph")};
+        for (IGraph graph : graphs) {
+            // a batch size of 2 makes the loader flush in the middle and at the end
+            CsvEdgeLoader.LoadReport report = new CsvEdgeLoader(2).load(new StringReader(CONSTRAINTS), graph);
+            Assert.assertEquals(4, report.records);
+            Assert.assertEquals(4, graph.getAllNodes().size());
+            Assert.assertTrue(graph.getNeighbors("lab 2").contains("lab 1"));
+            Assert.assertTrue(graph.getNeighbors("lab 2").contains("lab 3"));
+            Assert.assertFalse(graph.getNeighbors("lab 3").contains("lab 2"));
+            Assert.assertTrue(graph.getNeighbors("lab 1").contains("lab, 4"));
+            Assert.assertEquals(1, graph.countSelfEdges());
+        }
+    }
+
+    @Test
+    public void testLoadMalformed() {
+        Assert.assertThrows(
+                IllegalArgumentException.class,
+                () -> new CsvEdgeLoader().load(new StringReader("lab 1,lab 2\nlab 3\n"), new NodeEdgeGraph("a graph")));
+    }
+}
@@ -0,0 +1,157 @@
+package test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import sol.GraphMetrics;
+import sol.GraphMetrics.Operation;
+import sol.GraphUtils;
+import sol.IGraph;
+import sol.LandmarkIndex;
+import sol.NodeEdgeGraph;
+import sol.ReachabilityIndex;
+import sol.RouteCache;
+import sol.Scheduler;
+import sol.WeightedGraph;
+import src.NoRouteException;
+import src.NoScheduleException;
+import src.NodeNameExistsException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class GraphMetricsTest {
+    private IGraph graph;
+
+    @Before
+    public void setUp() throws NodeNameExistsException {
+        this.graph = new NodeEdgeGraph("a graph");
+        this.graph.addUndirectedEdge("lab 1", "lab 2");
+        this.graph.addUndirectedEdge("lab 2", "lab 3");
+        this.graph.addNode("lab 4");
+        GraphMetrics.reset();
+    }
+
+    @After
+    public void tearDown() {
+        GraphMetrics.setEnabled(false);
+        GraphMetrics.reset();
+    }
+
+    @Test
+    public void testCounters() throws NoRouteException, NoScheduleException {
+        GraphUtils.hasRoute(this.graph, "lab 1", "lab 3");
+        Assert.assertEquals(0, GraphMetrics.getCalls(Operation.HAS_ROUTE));
+
+        GraphMetrics.setEnabled(true);
+        Assert.assertTrue(GraphUtils.hasRoute(this.graph, "lab 1", "lab 3"));
+        Assert.assertFalse(GraphUtils.hasRoute(this.graph, "lab 1", "lab 4"));
+        Assert.assertEquals(2, GraphMetrics.getCalls(Operation.HAS_ROUTE));
+        Assert.assertEquals(1, GraphMetrics.getSuccesses(Operation.HAS_ROUTE));
+        // the first search stops at lab 3 before expanding it, the second expands lab 1, 2 and 3
+        Assert.assertEquals(6, GraphMetrics.getNodesVisited(Operation.HAS_ROUTE));
+        Assert.assertEquals(7, GraphMetrics.getEdgesScanned(Operation.HAS_ROUTE));
+
+        Assert.assertEquals(3, GraphUtils.getRoute(this.graph, "lab 1", "lab 3").size());
+        Assert.assertThrows(NoRouteException.class, () -> GraphUtils.getRoute(this.graph, "lab 1", "lab 4"));
+        Assert.assertEquals(2, GraphMetrics.getCalls(Operation.GET_ROUTE));
+        Assert.assertEquals(1, GraphMetrics.getSuccesses(Operation.GET_ROUTE));
+
+        Assert.assertTrue(Scheduler.checkValidity(this.graph, Scheduler.findSchedule(this.graph)));
+        this.graph.addUndirectedEdge("lab 1", "lab 3");
+        Assert.assertThrows(NoScheduleException.class, () -> Scheduler.findSchedule(this.graph));
+        Assert.assertEquals(2, GraphMetrics.getCalls(Operation.FIND_SCHEDULE));
+        Assert.assertEquals(1, GraphMetrics.getSuccesses(Operation.FIND_SCHEDULE));
+        Assert.assertEquals(8, GraphMetrics.getNodesVisited(Operation.FIND_SCHEDULE));
+        Assert.assertEquals(1, GraphMetrics.getCalls(Operation.CHECK_VALIDITY));
+
+        long[] histogram = GraphMetrics.getLatencyHistogram(Operation.HAS_ROUTE);
+        Assert.assertEquals(GraphMetrics.BUCKETS, histogram.length);
+        Assert.assertEquals(2, Arrays.stream(histogram).sum());
+        Assert.assertTrue(GraphMetrics.getTotalNanos(Operation.HAS_ROUTE) > 0);
+
+        GraphMetrics.reset();
+        Assert.assertEquals(0, GraphMetrics.getCalls(Operation.HAS_ROUTE));
+        Assert.assertEquals(0, Arrays.stream(GraphMetrics.getLatencyHistogram(Operation.HAS_ROUTE)).sum());
+    }
+
+    @Test
+    public void testIndexAndVariantQueriesAreCounted() throws NoRouteException, NoScheduleException {
+        GraphMetrics.setEnabled(true);
+        Assert.assertTrue(GraphUtils.hasRoute(new ReachabilityIndex(this.graph), "lab 1", "lab 3"));
+        Assert.assertEquals(0, GraphMetrics.getNodesVisited(Operation.HAS_ROUTE)); // a bit test, no search
+        Assert.assertTrue(GraphUtils.hasRoute(new ReachabilityIndex(this.graph, 0), "lab 1", "lab 3"));
+        RouteCache cache = new RouteCache(this.graph, 16);
+        Assert.assertTrue(GraphUtils.hasRoute(cache, "lab 1", "lab 3"));
+        Assert.assertTrue(GraphUtils.hasRoute(cache, "lab 1", "lab 3"));
+        Assert.assertEquals(4, GraphMetrics.getCalls(Operation.HAS_ROUTE));
+        Assert.assertEquals(4, GraphMetrics.getSuccesses(Operation.HAS_ROUTE));
+        // the fallback and the cache miss each visit lab 1, 2 and 3; the index and the cache hit search nothing
+        Assert.assertEquals(6, GraphMetrics.getNodesVisited(Operation.HAS_ROUTE));
+        Assert.assertEquals(6, GraphMetrics.getEdgesScanned(Operation.HAS_ROUTE));
+
+        WeightedGraph weighted = new WeightedGraph("a weighted graph");
+        weighted.addDirectedEdge("lab 1", "lab 2", 2.0);
+        weighted.addDirectedEdge("lab 2", "lab 3", 2.0);
+        Assert.assertEquals(3, GraphUtils.getRoute(cache, "lab 1", "lab 3").size());
+        Assert.assertEquals(3, GraphUtils.getRoute(new LandmarkIndex(this.graph), "lab 1", "lab 3").size());
+        Assert.assertEquals(3, GraphUtils.getRouteBidirectional(this.graph, "lab 1", "lab 3").size());
+        Assert.assertEquals(3, GraphUtils.getWeightedRoute(weighted, "lab 1", "lab 3").size());
+        Assert.assertEquals(4.0, GraphUtils.getRouteWeight(weighted, "lab 1", "lab 3"), 0.0);
+        Assert.assertThrows(NoRouteException.class,
+                () -> GraphUtils.getRouteBidirectional(this.graph, "lab 1", "no such lab"));
+        Assert.assertEquals(6, GraphMetrics.getCalls(Operation.GET_ROUTE));
+        Assert.assertEquals(5, GraphMetrics.getSuccesses(Operation.GET_ROUTE));
+        Assert.assertTrue(GraphMetrics.getNodesVisited(Operation.GET_ROUTE) > 0);
+        Assert.assertTrue(GraphMetrics.getEdgesScanned(Operation.GET_ROUTE) > 0);
+
+        List<ArrayList<HashSet<String>>> candidates = Arrays.asList(
+                Scheduler.findSchedule(this.graph), new ArrayList<>(Arrays.asList(
+                        new HashSet<>(Arrays.asList("lab 1", "lab 2")), new HashSet<>())));
+        Scheduler.checkValidityBatch(this.graph, candidates);
+        Assert.assertEquals(1, GraphMetrics.getCalls(Operation.CHECK_VALIDITY));
+        Assert.assertEquals(0, GraphMetrics.getSuccesses(Operation.CHECK_VALIDITY));
+        Assert.assertEquals(6, GraphMetrics.getNodesVisited(Operation.CHECK_VALIDITY));
+    }
+
+    @Test
+    public void testFlightRecorderEvents() throws IOException, NoScheduleException {
+        Path file = Files.createTempFile("graph-metrics", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("sol.RouteQuery");
+            recording.enable("sol.ScheduleOperation");
+            recording.start();
+            GraphUtils.hasRoute(this.graph, "lab 1", "lab 3");
+            Scheduler.findSchedule(this.graph);
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("sol."))
+                .collect(Collectors.toList());
+        Files.delete(file);
+        Assert.assertEquals(2, events.size());
+        RecordedEvent route = events.get(0);
+        Assert.assertEquals("sol.RouteQuery", route.getEventType().getName());
+        Assert.assertEquals("HAS_ROUTE", route.getString("operation"));
+        Assert.assertEquals("lab 3", route.getString("to"));
+        Assert.assertTrue(route.getBoolean("found"));
+        Assert.assertEquals(3, route.getInt("nodesVisited"));
+        Assert.assertEquals(3, route.getLong("edgesScanned"));
+        RecordedEvent schedule = events.get(1);
+        Assert.assertEquals("FIND_SCHEDULE", schedule.getString("operation"));
+        Assert.assertEquals(4, schedule.getInt("labs"));
+        Assert.assertTrue(schedule.getBoolean("success"));
+    }
+}
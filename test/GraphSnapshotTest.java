@@ -0,0 +1,88 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import sol.GraphSnapshot;
+import sol.GraphUtils;
+import sol.IGraph;
+import sol.MappedGraph;
+import sol.NodeEdgeGraph;
+import sol.Scheduler;
+import src.NoRouteException;
+import src.NoScheduleException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+public class GraphSnapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndOpen() throws IOException, NoRouteException, NoScheduleException {
+        IGraph graph = new NodeEdgeGraph("a graph");
+        graph.addUndirectedEdge("lab 1", "lab 2");
+        graph.addUndirectedEdge("lab 2", "lab 3");
+        graph.addUndirectedEdge("lab 3", "laboratoire \u00e9t\u00e9");
+        graph.addDirectedEdge("lab 5", "lab 5");
+        graph.addDirectedEdge("lab 4", "lab 1");
+        Path file = folder.getRoot().toPath().resolve("graph.snapshot");
+        GraphSnapshot.write(graph, file);
+
+        MappedGraph mapped = GraphSnapshot.open(file);
+        Assert.assertEquals(graph.nodeCount(), mapped.nodeCount());
+        Assert.assertEquals(8, mapped.edgeCount());
+        for (String label : graph.getAllNodes()) {
+            Assert.assertEquals(label, mapped.labelOf(mapped.idOf(label)));
+            Assert.assertEquals(new HashSet<>(graph.getNeighbors(label)), new HashSet<>(mapped.getNeighbors(label)));
+            Assert.assertEquals(new HashSet<>(graph.getPredecessors(label)),
+                    new HashSet<>(mapped.getPredecessors(label)));
+        }
+        Assert.assertEquals(-1, mapped.idOf("lab 6"));
+        Assert.assertEquals(1, mapped.countSelfEdges());
+        Assert.assertSame(mapped.freeze(), mapped.freeze());
+        Assert.assertFalse(mapped.reachesAllOthers("lab 2"));
+        Assert.assertEquals(4, GraphUtils.getRoute(mapped, "lab 1", "laboratoire \u00e9t\u00e9").size());
+        Assert.assertFalse(GraphUtils.hasRoute(mapped, "lab 1", "lab 5"));
+        Assert.assertTrue(GraphUtils.hasRoute(mapped, "lab 3", "lab 4", GraphUtils.Direction.BACKWARD));
+        Assert.assertFalse(GraphUtils.hasRoute(mapped, "lab 3", "lab 4"));
+        Assert.assertThrows(
+                UnsupportedOperationException.class,
+                () -> mapped.addDirectedEdge("lab 1", "lab 3"));
+        Assert.assertThrows(NoScheduleException.class, () -> Scheduler.findSchedule(mapped));
+    }
+
+    @Test
+    public void testScheduleEmptyAndBadFile() throws IOException, NoScheduleException {
+        Path file = folder.getRoot().toPath().resolve("empty.snapshot");
+        GraphSnapshot.write(new NodeEdgeGraph("empty"), file);
+        ArrayList<HashSet<String>> schedule = Scheduler.findSchedule(GraphSnapshot.open(file));
+        Assert.assertEquals(0, schedule.get(0).size());
+
+        Path bad = folder.getRoot().toPath().resolve("bad.snapshot");
+        Files.write(bad, "lab 1,lab 2\n".getBytes());
+        Assert.assertThrows(IOException.class, () -> GraphSnapshot.open(bad));
+
+        // a snapshot cut short, or with a damaged header, fails when opened
+        IGraph graph = new NodeEdgeGraph("a graph");
+        graph.addUndirectedEdge("lab 1", "lab 2");
+        graph.addUndirectedEdge("lab 2", "lab 3");
+        Path good = folder.getRoot().toPath().resolve("good.snapshot");
+        GraphSnapshot.write(graph, good);
+        byte[] bytes = Files.readAllBytes(good);
+        Path truncated = folder.getRoot().toPath().resolve("truncated.snapshot");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 3));
+        Assert.assertThrows(IOException.class, () -> GraphSnapshot.open(truncated));
+        bytes[15] += 1; // the edge count
+        Path corrupted = folder.getRoot().toPath().resolve("corrupted.snapshot");
+        Files.write(corrupted, bytes);
+        Assert.assertThrows(IOException.class, () -> GraphSnapshot.open(corrupted));
+    }
+}
@@ -3,15 +3,29 @@ package test;
 import org.junit.Assert;
 import org.junit.Test;
 
+import sol.BfsEngine;
+import sol.ConcurrentGraph;
+import sol.CsrGraph;
 import sol.EdgeArrayGraph;
 import sol.GraphUtils;
 import sol.IGraph;
+import sol.LandmarkIndex;
 import sol.NodeEdgeGraph;
+import sol.ParallelBfs;
+import sol.ReachabilityIndex;
+import sol.RouteCache;
+import sol.WeightedGraph;
 import src.NoRouteException;
 import src.NodeNameExistsException;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 public class GraphUtilsTest {
     // Assumes that graph will be empty, modifies it in-place
@@ -161,6 +175,39 @@ public class GraphUtilsTest {
     }
 
 
+    @Test
+    public void testCsrGraph(){
+        try {
+            IGraph source = new NodeEdgeGraph("a graph");
+            addNodes(source);
+            addEdges(source);
+            source.addDirectedEdge("H", "H");
+            CsrGraph csrGraph = new CsrGraph("a csr graph", source);
+            Assert.assertEquals(source.getAllNodes().size(), csrGraph.nodeCount());
+            Assert.assertEquals(11, csrGraph.edgeCount());
+            Assert.assertEquals(1, csrGraph.countSelfEdges());
+            Assert.assertFalse(csrGraph.reachesAllOthers("E"));
+            Assert.assertEquals(2, csrGraph.getNeighbors("G").size());
+            Assert.assertTrue(csrGraph.getNeighbors("G").contains("B"));
+            Assert.assertTrue(csrGraph.hasEdge(csrGraph.idOf("C"), csrGraph.idOf("A")));
+            Assert.assertFalse(csrGraph.hasEdge(csrGraph.idOf("A"), csrGraph.idOf("C")));
+            Assert.assertEquals(-1, csrGraph.idOf("Z"));
+
+            LinkedList<String> route = GraphUtils.getRoute(csrGraph, "E", "H");
+            Assert.assertEquals(4, route.size());
+            Assert.assertTrue(checkRouteValidity(csrGraph, route));
+            Assert.assertFalse(GraphUtils.hasRoute(csrGraph, "H", "A"));
+            Assert.assertThrows(
+                    UnsupportedOperationException.class,
+                    () -> csrGraph.addDirectedEdge("H", "A"));
+        }
+        catch (NodeNameExistsException e) {
+            Assert.fail("Could not create graph to test");
+        } catch (NoRouteException e) {
+            Assert.fail("getRoute did not find a route");
+        }
+    }
+
     @Test
     public void testGetRouteSimpleNoRoute(){
         try {
@@ -321,6 +368,425 @@ public class GraphUtilsTest {
     }
 
 
+    @Test
+    public void testReachesAllOthersManyNodes() throws NodeNameExistsException {
+        //EdgeArrayGraph - rows span several 64 column words
+        IGraph graphArray = new EdgeArrayGraph("a graph");
+        for (int i = 0; i < 150; i++) {
+            graphArray.addDirectedEdge("hub", "node " + i);
+        }
+        Assert.assertTrue(graphArray.reachesAllOthers("hub"));
+        Assert.assertFalse(graphArray.reachesAllOthers("node 70"));
+        Assert.assertEquals(150, graphArray.getNeighbors("hub").size());
+        Assert.assertEquals(0, graphArray.countSelfEdges());
+        graphArray.addNode("node 150");
+        Assert.assertFalse(graphArray.reachesAllOthers("hub"));
+        graphArray.addUndirectedEdge("node 150", "hub");
+        graphArray.addDirectedEdge("hub", "hub");
+        Assert.assertTrue(graphArray.reachesAllOthers("hub"));
+        Assert.assertEquals(1, graphArray.countSelfEdges());
+        Assert.assertEquals(1, graphArray.getNeighbors("node 150").size());
+    }
+
+    @Test
+    public void testNodeEdgeGraphHighDegree() throws NodeNameExistsException {
+        //NodeEdgeGraph - the hub row is promoted past the small array and stays in insertion order
+        IGraph graphNode = new NodeEdgeGraph("a graph");
+        for (int i = 0; i < 150; i++) {
+            graphNode.addDirectedEdge("hub", "node " + i);
+            graphNode.addDirectedEdge("hub", "node " + (i / 2));
+        }
+        LinkedList<String> neighbors = graphNode.getNeighbors("hub");
+        Assert.assertEquals(150, neighbors.size());
+        for (int i = 0; i < 150; i++) {
+            Assert.assertEquals("node " + i, neighbors.get(i));
+        }
+        Assert.assertTrue(graphNode.reachesAllOthers("hub"));
+        Assert.assertFalse(graphNode.reachesAllOthers("node 70"));
+        Assert.assertEquals(0, graphNode.countSelfEdges());
+        graphNode.addNode("node 150");
+        Assert.assertFalse(graphNode.reachesAllOthers("hub"));
+        graphNode.addUndirectedEdge("node 150", "hub");
+        graphNode.addDirectedEdge("hub", "hub");
+        graphNode.addDirectedEdge("hub", "hub");
+        Assert.assertTrue(graphNode.reachesAllOthers("hub"));
+        Assert.assertEquals(1, graphNode.countSelfEdges());
+        Assert.assertEquals(152, graphNode.getNeighbors("hub").size());
+    }
+
+    @Test
+    public void testForEachNeighbor() throws NodeNameExistsException {
+        IGraph[] graphs = {new NodeEdgeGraph("a graph"), new EdgeArrayGraph("a graph")};
+        for (IGraph graph : graphs) {
+            addNodes(graph);
+            addEdges(graph);
+            Assert.assertEquals(9, graph.nodeCount());
+            Assert.assertEquals(-1, graph.idOf("Z"));
+            for (int id = 0; id < graph.nodeCount(); id++) {
+                String label = graph.labelOf(id);
+                Assert.assertEquals(id, graph.idOf(label));
+                LinkedList<String> neighbors = new LinkedList<>();
+                graph.forEachNeighbor(id, neighbor -> neighbors.add(graph.labelOf(neighbor)));
+                Assert.assertEquals(graph.getNeighbors(label), neighbors);
+            }
+        }
+    }
+
+    @Test
+    public void testGetPredecessors() throws NodeNameExistsException {
+        IGraph[] graphs = {
+                new NodeEdgeGraph("a graph"), new NodeEdgeGraph("an indexed graph", true),
+                new EdgeArrayGraph("a graph"), new EdgeArrayGraph("an indexed graph", true)};
+        for (IGraph graph : graphs) {
+            graph.addDirectedEdge("Providence", "Boston");
+            graph.addDirectedEdge("Hartford", "Boston");
+            graph.addDirectedEdge("Hartford", "Boston");
+            graph.addUndirectedEdge("Boston", "Worcester");
+            graph.addDirectedEdge("Boston", "Boston");
+            graph.addNode("Portland");
+            Assert.assertEquals(
+                    new HashSet<>(Arrays.asList("Providence", "Hartford", "Worcester", "Boston")),
+                    new HashSet<>(graph.getPredecessors("Boston")));
+            Assert.assertEquals(Collections.singletonList("Boston"), graph.getPredecessors("Worcester"));
+            Assert.assertTrue(graph.getPredecessors("Hartford").isEmpty());
+            Assert.assertTrue(graph.getPredecessors("Portland").isEmpty());
+            CsrGraph csrGraph = new CsrGraph("a csr graph", graph);
+            for (String label : graph.getAllNodes()) {
+                Assert.assertEquals(new HashSet<>(graph.getPredecessors(label)),
+                        new HashSet<>(csrGraph.getPredecessors(label)));
+            }
+        }
+    }
+
+    @Test
+    public void testGetRouteBackward() throws NoRouteException {
+        Random random = new Random(7);
+        IGraph indexed = new EdgeArrayGraph("an indexed graph", true);
+        // without in-edges, backward searches run on the frozen copy
+        IGraph unindexed = new NodeEdgeGraph("an unindexed graph");
+        for (int i = 0; i < 300; i++) {
+            String fromNode = "node " + random.nextInt(200);
+            String toNode = "node " + random.nextInt(200);
+            indexed.addDirectedEdge(fromNode, toNode);
+            unindexed.addDirectedEdge(fromNode, toNode);
+        }
+        Assert.assertTrue(indexed.indexesInEdges());
+        Assert.assertFalse(unindexed.indexesInEdges());
+        for (IGraph graph : Arrays.asList(indexed, unindexed)) {
+            this.checkRoutesBackward(graph, random);
+        }
+    }
+
+    private void checkRoutesBackward(IGraph graph, Random random) throws NoRouteException {
+        for (int i = 0; i < 200; i++) {
+            String fromNode = graph.labelOf(random.nextInt(graph.nodeCount()));
+            String toNode = graph.labelOf(random.nextInt(graph.nodeCount()));
+            boolean backward = GraphUtils.hasRoute(graph, fromNode, toNode, GraphUtils.Direction.BACKWARD);
+            Assert.assertEquals(GraphUtils.hasRoute(graph, toNode, fromNode), backward);
+            if (backward && !fromNode.equals(toNode)) {
+                LinkedList<String> route = GraphUtils.getRoute(graph, fromNode, toNode, GraphUtils.Direction.BACKWARD);
+                Assert.assertEquals(GraphUtils.getRoute(graph, toNode, fromNode).size(), route.size());
+                Assert.assertEquals(fromNode, route.getFirst());
+                Assert.assertEquals(toNode, route.getLast());
+                for (int j = 0; j < route.size() - 1; j++) {
+                    Assert.assertTrue(graph.getNeighbors(route.get(j + 1)).contains(route.get(j)));
+                }
+                Assert.assertEquals(route.size(),
+                        GraphUtils.getRouteBidirectional(graph, toNode, fromNode).size());
+            }
+        }
+    }
+
+    @Test
+    public void testReachabilityIndex() {
+        Random random = new Random(11);
+        IGraph graph = new NodeEdgeGraph("a random graph");
+        for (int i = 0; i < 400; i++) {
+            graph.addDirectedEdge("node " + random.nextInt(300), "node " + random.nextInt(300));
+        }
+        graph.addUndirectedEdge("node 0", "node 1");
+        ReachabilityIndex index = new ReachabilityIndex(graph);
+        ReachabilityIndex fallback = new ReachabilityIndex(graph, 0);
+        Assert.assertTrue(index.isIndexed());
+        Assert.assertFalse(fallback.isIndexed());
+        for (String fromNode : graph.getAllNodes()) {
+            for (String toNode : graph.getAllNodes()) {
+                boolean expected = GraphUtils.hasRoute(graph, fromNode, toNode);
+                Assert.assertEquals(expected, GraphUtils.hasRoute(index, fromNode, toNode));
+                Assert.assertEquals(expected, GraphUtils.hasRoute(fallback, fromNode, toNode));
+            }
+        }
+        Assert.assertFalse(GraphUtils.hasRoute(index, "node 0", "no such node"));
+    }
+
+    @Test
+    public void testRouteCache() throws NoRouteException {
+        IGraph graph = new NodeEdgeGraph("a graph");
+        graph.addDirectedEdge("Providence", "Boston");
+        graph.addDirectedEdge("Boston", "Worcester");
+        graph.addDirectedEdge("Hartford", "Springfield");
+        RouteCache cache = new RouteCache(graph, 2);
+        Assert.assertTrue(GraphUtils.hasRoute(cache, "Providence", "Worcester"));
+        Assert.assertEquals(Arrays.asList("Providence", "Boston", "Worcester"),
+                GraphUtils.getRoute(cache, "Providence", "Worcester"));
+        Assert.assertEquals(Arrays.asList("Providence", "Boston", "Worcester"),
+                GraphUtils.getRoute(cache, "Providence", "Worcester"));
+        Assert.assertFalse(GraphUtils.hasRoute(cache, "Providence", "Hartford"));
+        Assert.assertThrows(NoRouteException.class, () -> GraphUtils.getRoute(cache, "Providence", "Hartford"));
+        Assert.assertEquals(2, cache.getHits());
+        Assert.assertEquals(3, cache.getMisses());
+        Assert.assertEquals(0, cache.getEvictions());
+
+        Assert.assertFalse(GraphUtils.hasRoute(cache, "Hartford", "Boston"));
+        Assert.assertEquals(1, cache.getEvictions());
+        Assert.assertEquals(2, cache.size());
+
+        // an edge that already exists does not change the graph
+        graph.addDirectedEdge("Providence", "Boston");
+        Assert.assertFalse(GraphUtils.hasRoute(cache, "Providence", "Hartford"));
+        Assert.assertEquals(0, cache.getInvalidations());
+        graph.addDirectedEdge("Worcester", "Hartford");
+        Assert.assertTrue(GraphUtils.hasRoute(cache, "Providence", "Hartford"));
+        Assert.assertEquals(1, cache.getInvalidations());
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(5, GraphUtils.getRoute(cache, "Providence", "Springfield").size());
+    }
+
+    @Test
+    public void testFreeze() {
+        IGraph[] graphs = {new NodeEdgeGraph("a graph"), new EdgeArrayGraph("a graph"), new ConcurrentGraph("a graph")};
+        for (IGraph graph : graphs) {
+            graph.addDirectedEdge("Providence", "Boston");
+            graph.addDirectedEdge("Boston", "Worcester");
+            CsrGraph frozen = graph.freeze();
+            Assert.assertSame(frozen, graph.freeze());
+            Assert.assertSame(frozen, frozen.freeze());
+            graph.addDirectedEdge("Providence", "Boston");
+            Assert.assertSame(frozen, graph.freeze());
+
+            graph.addDirectedEdge("Worcester", "Hartford");
+            CsrGraph refrozen = graph.freeze();
+            Assert.assertNotSame(frozen, refrozen);
+            Assert.assertEquals(3, frozen.nodeCount());
+            Assert.assertEquals(2, frozen.edgeCount());
+            Assert.assertEquals(-1, frozen.idOf("Hartford"));
+            Assert.assertFalse(GraphUtils.hasRoute(frozen, "Providence", "Hartford"));
+            Assert.assertEquals(4, refrozen.nodeCount());
+            Assert.assertTrue(GraphUtils.hasRoute(refrozen, "Providence", "Hartford"));
+            // the snapshot is shared by the threads of the common pool
+            Assert.assertTrue(IntStream.range(0, 1000).parallel().allMatch(
+                    i -> GraphUtils.hasRoute(refrozen, "Providence", "Hartford")
+                            && !GraphUtils.hasRoute(refrozen, "Hartford", "Providence")));
+        }
+    }
+
+    @Test
+    public void testGetRouteBidirectional() throws NoRouteException {
+        Random random = new Random(42);
+        IGraph graph = new NodeEdgeGraph("a random graph");
+        for (int i = 0; i < 300; i++) {
+            graph.addDirectedEdge("node " + random.nextInt(200), "node " + random.nextInt(200));
+        }
+        CsrGraph csrGraph = new CsrGraph("a csr graph", graph);
+        for (int i = 0; i < 200; i++) {
+            String fromNode = csrGraph.labelOf(random.nextInt(csrGraph.nodeCount()));
+            String toNode = csrGraph.labelOf(random.nextInt(csrGraph.nodeCount()));
+            if (GraphUtils.hasRoute(graph, fromNode, toNode)) {
+                LinkedList<String> route = GraphUtils.getRoute(graph, fromNode, toNode);
+                LinkedList<String> bidirectional = GraphUtils.getRouteBidirectional(csrGraph, fromNode, toNode);
+                Assert.assertEquals(route.size(), bidirectional.size());
+                Assert.assertEquals(fromNode, bidirectional.getFirst());
+                Assert.assertEquals(toNode, bidirectional.getLast());
+                for (int j = 0; j < bidirectional.size() - 1; j++) {
+                    Assert.assertTrue(csrGraph.getNeighbors(bidirectional.get(j)).contains(bidirectional.get(j + 1)));
+                }
+            } else {
+                Assert.assertThrows(
+                        NoRouteException.class,
+                        () -> GraphUtils.getRouteBidirectional(csrGraph, fromNode, toNode));
+            }
+        }
+    }
+
+    @Test
+    public void testParallelBfs() throws NodeNameExistsException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Random random = new Random(7);
+        // a sparse graph keeps to top-down steps, a dense one switches to bottom-up and back
+        for (int degree : new int[]{2, 40}) {
+            IGraph graph = new EdgeArrayGraph("a random graph");
+            for (int i = 0; i < 20000 * degree; i++) {
+                graph.addDirectedEdge("node " + random.nextInt(20000), "node " + random.nextInt(20000));
+            }
+            CsrGraph csrGraph = graph.freeze();
+            BfsEngine engine = new BfsEngine();
+            for (int i = 0; i < 20; i++) {
+                int from = random.nextInt(csrGraph.nodeCount());
+                int to = random.nextInt(csrGraph.nodeCount());
+                int[] expected = engine.route(csrGraph, from, to);
+                int[] path = ParallelBfs.route(csrGraph, from, to, pool);
+                if (expected == null) {
+                    Assert.assertNull(path);
+                    // both searches visited every node the source reaches
+                    Assert.assertEquals(engine.lastVisitedCount(), ParallelBfs.lastVisitedCount());
+                    continue;
+                }
+                Assert.assertTrue(ParallelBfs.lastVisitedCount() >= path.length);
+                Assert.assertEquals(expected.length, path.length);
+                Assert.assertEquals(from, path[0]);
+                Assert.assertEquals(to, path[path.length - 1]);
+                for (int j = 0; j < path.length - 1; j++) {
+                    Assert.assertTrue(csrGraph.getNeighbors(csrGraph.labelOf(path[j]))
+                            .contains(csrGraph.labelOf(path[j + 1])));
+                }
+            }
+        }
+        // the arrays kept from the larger searches are reused for a smaller graph
+        IGraph small = new NodeEdgeGraph("a small graph");
+        small.addDirectedEdge("node 0", "node 1");
+        small.addDirectedEdge("node 1", "node 2");
+        small.addNode("node 3");
+        CsrGraph csrSmall = small.freeze();
+        Assert.assertArrayEquals(new int[]{0, 1, 2}, ParallelBfs.route(csrSmall, 0, 2, pool));
+        Assert.assertNull(ParallelBfs.route(csrSmall, 0, 3, pool));
+        Assert.assertNull(ParallelBfs.route(csrSmall, 2, 0, pool));
+        pool.shutdown();
+    }
+
+    @Test
+    public void testGetWeightedRoute() throws NoRouteException {
+        WeightedGraph graph = new WeightedGraph("a weighted graph");
+        graph.addDirectedEdge("lab 1", "lab 4", 10.0);
+        graph.addDirectedEdge("lab 1", "lab 2", 1.5);
+        graph.addDirectedEdge("lab 2", "lab 3");
+        graph.addDirectedEdge("lab 3", "lab 4", 2.0);
+        Assert.assertEquals(Arrays.asList("lab 1", "lab 2", "lab 3", "lab 4"),
+                GraphUtils.getWeightedRoute(graph, "lab 1", "lab 4"));
+        Assert.assertEquals(4.5, GraphUtils.getRouteWeight(graph, "lab 1", "lab 4"), 0.0);
+        Assert.assertEquals(1.0, graph.getWeight("lab 2", "lab 3"), 0.0);
+        Assert.assertTrue(Double.isNaN(graph.getWeight("lab 4", "lab 1")));
+        Assert.assertEquals(Arrays.asList("lab 1", "lab 4"), GraphUtils.getRoute(graph, "lab 1", "lab 4"));
+
+        // lowering the weight of an existing edge changes the route
+        long epoch = graph.modificationEpoch();
+        graph.addDirectedEdge("lab 1", "lab 4", 4.0);
+        Assert.assertNotEquals(epoch, graph.modificationEpoch());
+        Assert.assertEquals(Arrays.asList("lab 1", "lab 4"), GraphUtils.getWeightedRoute(graph, "lab 1", "lab 4"));
+        Assert.assertEquals(Double.POSITIVE_INFINITY, GraphUtils.getRouteWeight(graph, "lab 4", "lab 1"), 0.0);
+        Assert.assertThrows(NoRouteException.class, () -> GraphUtils.getWeightedRoute(graph, "lab 4", "lab 1"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> graph.addDirectedEdge("lab 4", "lab 1", -1.0));
+    }
+
+    @Test
+    public void testGetWeightedRouteRandom() throws NoRouteException, NodeNameExistsException {
+        Random random = new Random(11);
+        int nodeCount = 120;
+        WeightedGraph graph = new WeightedGraph("a random weighted graph");
+        double[][] expected = new double[nodeCount][nodeCount];
+        for (double[] row : expected) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            graph.addNode("node " + i);
+            expected[i][i] = 0.0;
+        }
+        for (int i = 0; i < 600; i++) {
+            int from = random.nextInt(nodeCount);
+            int to = random.nextInt(nodeCount);
+            double weight = random.nextInt(4) == 0 ? 1.0 : random.nextInt(100) / 4.0;
+            graph.addDirectedEdge("node " + from, "node " + to, weight);
+            Assert.assertEquals(weight, graph.getWeight("node " + from, "node " + to), 0.0);
+            if (from != to) {
+                expected[from][to] = weight; // the last weight given to an edge wins
+            }
+        }
+        // Floyd-Warshall over the same edges
+        for (int k = 0; k < nodeCount; k++) {
+            for (int i = 0; i < nodeCount; i++) {
+                for (int j = 0; j < nodeCount; j++) {
+                    expected[i][j] = Math.min(expected[i][j], expected[i][k] + expected[k][j]);
+                }
+            }
+        }
+        for (int i = 0; i < 300; i++) {
+            int from = random.nextInt(nodeCount);
+            int to = random.nextInt(nodeCount);
+            double weight = GraphUtils.getRouteWeight(graph, "node " + from, "node " + to);
+            Assert.assertEquals(expected[from][to], weight, 1e-9);
+            if (weight != Double.POSITIVE_INFINITY) {
+                LinkedList<String> route = GraphUtils.getWeightedRoute(graph, "node " + from, "node " + to);
+                double total = 0.0;
+                for (int j = 0; j < route.size() - 1; j++) {
+                    total += graph.getWeight(route.get(j), route.get(j + 1));
+                }
+                Assert.assertEquals(weight, total, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testLandmarkIndex() throws NoRouteException {
+        Random random = new Random(5);
+        // a grid with a tenth of its streets closed, where goal-directed search pays off
+        IGraph grid = new NodeEdgeGraph("a grid");
+        for (int x = 0; x < 100; x++) {
+            for (int y = 0; y < 100; y++) {
+                if (x + 1 < 100 && random.nextInt(10) > 0) {
+                    grid.addUndirectedEdge(x + "," + y, (x + 1) + "," + y);
+                }
+                if (y + 1 < 100 && random.nextInt(10) > 0) {
+                    grid.addUndirectedEdge(x + "," + y, x + "," + (y + 1));
+                }
+            }
+        }
+        // and a sparse directed graph, where many pairs have no route
+        IGraph sparse = new EdgeArrayGraph("a sparse graph");
+        for (int i = 0; i < 900; i++) {
+            sparse.addDirectedEdge("node " + random.nextInt(600), "node " + random.nextInt(600));
+        }
+        for (IGraph graph : Arrays.asList(grid, sparse)) {
+            LandmarkIndex index = new LandmarkIndex(graph, 6);
+            Assert.assertEquals(6, Arrays.stream(index.getLandmarks()).distinct().count());
+            long settled = 0;
+            for (int i = 0; i < 200; i++) {
+                String fromNode = graph.labelOf(random.nextInt(graph.nodeCount()));
+                String toNode = graph.labelOf(random.nextInt(graph.nodeCount()));
+                if (GraphUtils.hasRoute(graph, fromNode, toNode)) {
+                    LinkedList<String> route = GraphUtils.getRoute(index, fromNode, toNode);
+                    Assert.assertEquals(GraphUtils.getRoute(graph, fromNode, toNode).size(), route.size());
+                    Assert.assertEquals(fromNode, route.getFirst());
+                    Assert.assertEquals(toNode, route.getLast());
+                    for (int j = 0; j < route.size() - 1; j++) {
+                        Assert.assertTrue(graph.getNeighbors(route.get(j)).contains(route.get(j + 1)));
+                    }
+                } else {
+                    Assert.assertThrows(NoRouteException.class, () -> GraphUtils.getRoute(index, fromNode, toNode));
+                }
+                settled += index.lastSettledCount();
+            }
+            if (graph == grid) {
+                // a BFS settles about half of the grid per route on average
+                Assert.assertTrue(settled / 200 < grid.nodeCount() / 10);
+            }
+        }
+    }
+
+    @Test
+    public void testGetRouteLongChain() throws NoRouteException {
+        IGraph chain = new EdgeArrayGraph("a chain");
+        for (int i = 0; i < 5000; i++) {
+            chain.addDirectedEdge("node " + i, "node " + (i + 1));
+        }
+        Assert.assertEquals(5001, GraphUtils.getRoute(chain, "node 0", "node 5000").size());
+        Assert.assertFalse(GraphUtils.hasRoute(chain, "node 5000", "node 0"));
+
+        HashMap<String, String> visitLog = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            visitLog.put("node " + (i + 1), "node " + i);
+        }
+        Assert.assertEquals(100001, GraphUtils.pathRetriever(visitLog, "node 0", "node 100000", new LinkedList<>()).size());
+    }
+
     @Test
     public void testGetRoute2(){
         try {
@@ -0,0 +1,67 @@
+package test;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sol.LabelDictionary;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LabelDictionaryTest {
+
+    @Test
+    public void testInternAcrossResizes() {
+        LabelDictionary dictionary = new LabelDictionary();
+        Assert.assertEquals(-1, dictionary.idOf("lab 0"));
+        // the empty label and long labels grow the char pool past its first 256 chars
+        List<String> labels = new ArrayList<>();
+        labels.add("");
+        for (int i = 0; i < 5000; i++) {
+            labels.add(i % 100 == 0 ? "a long laboratoire \u00e9t\u00e9 label number " + i : "lab " + i);
+        }
+        for (int i = 0; i < labels.size(); i++) {
+            Assert.assertEquals(i, dictionary.intern(labels.get(i)));
+            Assert.assertEquals(i + 1, dictionary.size());
+        }
+        // every id still maps both ways after the table and arrays were grown many times
+        for (int i = 0; i < labels.size(); i++) {
+            Assert.assertEquals(i, dictionary.idOf(labels.get(i)));
+            Assert.assertEquals(labels.get(i), dictionary.labelOf(i));
+            Assert.assertEquals(i, dictionary.intern(labels.get(i)));
+        }
+        Assert.assertEquals(labels.size(), dictionary.size());
+        Assert.assertEquals(-1, dictionary.idOf("lab 5000"));
+        Assert.assertEquals(-1, dictionary.idOf("lab"));
+        Assert.assertEquals(-1, dictionary.idOf("lab 1 "));
+    }
+
+    @Test
+    public void testCollidingLabels() {
+        // "Aa" and "BB" have the same String hash, so every sequence of them collides
+        List<String> labels = new ArrayList<>();
+        labels.add("");
+        for (int length = 0; length < 8; length++) {
+            List<String> longer = new ArrayList<>();
+            for (String label : labels) {
+                longer.add(label + "Aa");
+                longer.add(label + "BB");
+            }
+            labels = longer;
+        }
+        Assert.assertEquals(256, labels.size());
+        LabelDictionary dictionary = new LabelDictionary();
+        for (int i = 0; i < labels.size(); i++) {
+            Assert.assertEquals(labels.get(0).hashCode(), labels.get(i).hashCode());
+            Assert.assertEquals(i, dictionary.intern(labels.get(i)));
+        }
+        for (int i = 0; i < labels.size(); i++) {
+            Assert.assertEquals(i, dictionary.idOf(labels.get(i)));
+            Assert.assertEquals(labels.get(i), dictionary.labelOf(i));
+        }
+        // "C#" hashes like "Aa" too, so this has the hash and length of the labels without being one
+        Assert.assertEquals(labels.get(0).hashCode(), "C#AaAaAaAaAaAaAa".hashCode());
+        Assert.assertEquals(-1, dictionary.idOf("C#AaAaAaAaAaAaAa"));
+        Assert.assertEquals(-1, dictionary.idOf("AaAaAaAaAaAaAaA"));
+    }
+}
@@ -0,0 +1,203 @@
+package test;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import sol.ConcurrentGraph;
+import sol.IGraph;
+import sol.QueryService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class QueryServiceTest {
+    private IGraph graph;
+    private QueryService service;
+    private HttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        this.graph = new ConcurrentGraph("a graph");
+        this.graph.addUndirectedEdge("lab 1", "lab 2");
+        this.graph.addUndirectedEdge("lab 2", "lab 3");
+        this.graph.addUndirectedEdge("lab 3", "lab 4");
+        this.service = new QueryService(this.graph, 0);
+        this.service.start(0);
+        this.client = HttpClient.newHttpClient();
+    }
+
+    @After
+    public void tearDown() {
+        this.service.close();
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + this.service.getPort() + path)).build();
+        return this.client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String route(String endpoint, String from, String to) {
+        return "/" + endpoint + "?from=" + URLEncoder.encode(from, StandardCharsets.UTF_8)
+                + "&to=" + URLEncoder.encode(to, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testRoutes() throws IOException, InterruptedException {
+        this.graph.addDirectedEdge("lab 5", "lab 1");
+        Assert.assertEquals("true\n", this.get(route("hasRoute", "lab 5", "lab 4")).body());
+        Assert.assertEquals("false\n", this.get(route("hasRoute", "lab 4", "lab 5")).body());
+        Assert.assertEquals("false\n", this.get(route("hasRoute", "lab 4", "no such lab")).body());
+        HttpResponse<String> response = this.get(route("getRoute", "lab 5", "lab 4"));
+        Assert.assertEquals(200, response.statusCode());
+        Assert.assertEquals("lab 5\nlab 1\nlab 2\nlab 3\nlab 4\n", response.body());
+        Assert.assertEquals(404, this.get(route("getRoute", "lab 4", "lab 5")).statusCode());
+        Assert.assertEquals(400, this.get("/getRoute?from=lab").statusCode());
+
+        // the service answers on the latest snapshot of the graph
+        this.graph.addDirectedEdge("lab 4", "lab 5");
+        Assert.assertEquals("true\n", this.get(route("hasRoute", "lab 4", "lab 5")).body());
+    }
+
+    @Test
+    public void testConcurrentRoutesFromOneSource() throws Exception {
+        this.graph.addDirectedEdge("lab 5", "lab 1");
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String to = "lab " + (1 + i % 5);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(
+                    "http://localhost:" + this.service.getPort() + route("getRoute", "lab 5", to))).build();
+            responses.add(this.client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+        for (int i = 0; i < responses.size(); i++) {
+            String[] route = responses.get(i).get().body().split("\n");
+            Assert.assertEquals("lab 5", route[0]);
+            Assert.assertEquals("lab " + (1 + i % 5), route[route.length - 1]);
+            Assert.assertEquals(i % 5 == 4 ? 1 : 2 + i % 5, route.length);
+        }
+    }
+
+    /**
+     * A service that holds the first search from a source until the given number of
+     * queries have joined it, and counts the searches started and joined.
+     */
+    private static class CountingService extends QueryService {
+        final AtomicInteger started = new AtomicInteger();
+        final AtomicInteger joined = new AtomicInteger();
+        final CountDownLatch joins;
+
+        CountingService(IGraph graph, int joins) {
+            super(graph, 0);
+            this.joins = new CountDownLatch(joins);
+        }
+
+        @Override
+        protected void traversalStarted(String fromNodeLabel) {
+            this.started.incrementAndGet();
+            try {
+                this.joins.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        protected void traversalJoined(String fromNodeLabel) {
+            this.joined.incrementAndGet();
+            this.joins.countDown();
+        }
+    }
+
+    @Test
+    public void testConcurrentRoutesShareOneSearch() throws Exception {
+        this.graph.addDirectedEdge("lab 5", "lab 1");
+        try (CountingService counting = new CountingService(this.graph, 4)) {
+            counting.start(0);
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 1; i <= 5; i++) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:"
+                        + counting.getPort() + route("getRoute", "lab 5", "lab " + i))).build();
+                responses.add(this.client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            for (int i = 1; i <= 5; i++) {
+                String[] route = responses.get(i - 1).get().body().split("\n");
+                Assert.assertEquals("lab 5", route[0]);
+                Assert.assertEquals("lab " + i, route[route.length - 1]);
+                Assert.assertEquals(i == 5 ? 1 : i + 1, route.length);
+            }
+            // the first query started the search and held it until the four others joined
+            Assert.assertEquals(1, counting.started.get());
+            Assert.assertEquals(4, counting.joined.get());
+        }
+    }
+
+    @Test
+    public void testInternalError() throws IOException, InterruptedException {
+        AtomicBoolean failed = new AtomicBoolean();
+        try (QueryService failing = new QueryService(this.graph, 0) {
+            @Override
+            protected void traversalStarted(String fromNodeLabel) {
+                if (!failed.getAndSet(true)) {
+                    throw new IllegalStateException("no search today");
+                }
+            }
+        }) {
+            failing.start(0);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(
+                    "http://localhost:" + failing.getPort() + route("getRoute", "lab 1", "lab 4"))).build();
+            HttpResponse<String> response = this.client.send(request, HttpResponse.BodyHandlers.ofString());
+            Assert.assertEquals(500, response.statusCode());
+            Assert.assertTrue(response.body().contains("no search today"));
+            // the failed search was not left behind for later queries to join
+            response = this.client.send(request, HttpResponse.BodyHandlers.ofString());
+            Assert.assertEquals(200, response.statusCode());
+            Assert.assertEquals("lab 1\nlab 2\nlab 3\nlab 4\n", response.body());
+        }
+    }
+
+    @Test
+    public void testSnapshotRefreshInterval() throws IOException, InterruptedException {
+        this.graph.addDirectedEdge("lab 5", "lab 1");
+        // within the refresh interval, queries keep reading the snapshot they share
+        try (QueryService slow = new QueryService(this.graph, 3_600_000)) {
+            slow.start(0);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(
+                    "http://localhost:" + slow.getPort() + route("hasRoute", "lab 4", "lab 5"))).build();
+            Assert.assertEquals("false\n", this.client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+            this.graph.addDirectedEdge("lab 4", "lab 5");
+            Assert.assertEquals("false\n", this.client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        }
+        Assert.assertEquals("true\n", this.get(route("hasRoute", "lab 4", "lab 5")).body());
+    }
+
+    @Test
+    public void testSchedule() throws IOException, InterruptedException {
+        HttpResponse<String> response = this.get("/findSchedule");
+        Assert.assertEquals(200, response.statusCode());
+        HttpRequest check = HttpRequest.newBuilder(URI.create("http://localhost:" + this.service.getPort()
+                + "/checkValidity")).POST(HttpRequest.BodyPublishers.ofString(response.body())).build();
+        Assert.assertEquals("true\n", this.client.send(check, HttpResponse.BodyHandlers.ofString()).body());
+        HttpRequest bad = HttpRequest.newBuilder(URI.create("http://localhost:" + this.service.getPort()
+                + "/checkValidity")).POST(HttpRequest.BodyPublishers.ofString("0\tlab 1\n0\tlab 2\n")).build();
+        Assert.assertEquals("false\n", this.client.send(bad, HttpResponse.BodyHandlers.ofString()).body());
+
+        this.graph.addUndirectedEdge("lab 1", "lab 3");
+        response = this.get("/findSchedule");
+        Assert.assertEquals(409, response.statusCode());
+        Assert.assertEquals(3, response.body().split("\n").length);
+    }
+}
@@ -4,8 +4,13 @@ import org.junit.Assert;
 import org.junit.Test;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
+import sol.EdgeArrayGraph;
 import sol.IGraph;
+import sol.IncrementalScheduler;
 import sol.NodeEdgeGraph;
 import sol.Scheduler;
 import src.NoScheduleException;
@@ -406,4 +411,233 @@ public class SchedulerTest {
         }
     }
 
+    @Test
+    public void testFindScheduleParallel() throws NoScheduleException {
+        // many small components: paths and even cycles of different sizes
+        IGraph graph = new NodeEdgeGraph("a graph");
+        for (int c = 0; c < 5000; c++) {
+            int size = 2 + c % 7;
+            for (int i = 0; i < size - 1; i++) {
+                graph.addUndirectedEdge("lab " + c + "." + i, "lab " + c + "." + (i + 1));
+            }
+            if (size % 2 == 0) {
+                graph.addUndirectedEdge("lab " + c + "." + (size - 1), "lab " + c + ".0");
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ArrayList<HashSet<String>> schedule = Scheduler.findScheduleParallel(graph, pool);
+            Assert.assertTrue(Scheduler.checkValidity(graph, schedule));
+            Assert.assertEquals(Scheduler.findSchedule(graph), schedule);
+
+            graph.addUndirectedEdge("lab 4321.0", "lab 4321.2");
+            Assert.assertThrows(
+                    NoScheduleException.class,
+                    () -> Scheduler.findScheduleParallel(graph, pool));
+
+            IGraph empty = new EdgeArrayGraph("empty");
+            Assert.assertEquals(0, Scheduler.findScheduleParallel(empty, pool).get(0).size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testIncrementalScheduler() throws NoScheduleException {
+        Random random = new Random(7);
+        for (int round = 0; round < 20; round++) {
+            IncrementalScheduler scheduler = new IncrementalScheduler(new NodeEdgeGraph("a graph"));
+            while (scheduler.isSchedulable()) {
+                String lab1 = "lab " + random.nextInt(60);
+                String lab2 = "lab " + random.nextInt(60);
+                scheduler.addUndirectedEdge(lab1, lab2);
+                if (scheduler.isSchedulable()) {
+                    ArrayList<HashSet<String>> schedule = scheduler.getSchedule();
+                    Assert.assertTrue(Scheduler.checkValidity(scheduler, schedule));
+                    Assert.assertNotEquals(scheduler.instructorOf(lab1), scheduler.instructorOf(lab2));
+                } else {
+                    Assert.assertArrayEquals(new String[]{lab1, lab2}, scheduler.getFirstConflict());
+                    Assert.assertThrows(NoScheduleException.class, () -> Scheduler.findSchedule(scheduler));
+                }
+            }
+            Assert.assertThrows(NoScheduleException.class, () -> scheduler.instructorOf("lab 0"));
+        }
+    }
+
+    @Test
+    public void testIncrementalSchedulerExistingGraph() throws NoScheduleException, NodeNameExistsException {
+        IGraph simpleGraph = new NodeEdgeGraph("a graph");
+        makeSimpleGraph(simpleGraph);
+        IncrementalScheduler scheduler = new IncrementalScheduler(simpleGraph);
+        Assert.assertTrue(scheduler.isSchedulable());
+        Assert.assertNull(scheduler.getFirstConflict());
+        scheduler.addNode("lab 5");
+        Assert.assertEquals(scheduler.instructorOf("lab 1"), scheduler.instructorOf("lab 3"));
+        scheduler.addUndirectedEdge("lab 3", "lab 1");
+        Assert.assertFalse(scheduler.isSchedulable());
+        Assert.assertArrayEquals(new String[]{"lab 3", "lab 1"}, scheduler.getFirstConflict());
+    }
+
+    @Test
+    public void testCheckValidityBatch() throws NoScheduleException {
+        IGraph graph = new NodeEdgeGraph("a graph");
+        Random random = new Random(3);
+        for (int i = 0; i < 200; i++) {
+            graph.addUndirectedEdge("lab " + random.nextInt(100) * 2, "lab " + (random.nextInt(100) * 2 + 1));
+        }
+        ArrayList<HashSet<String>> valid = Scheduler.findSchedule(graph);
+        ArrayList<ArrayList<HashSet<String>>> candidates = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ArrayList<HashSet<String>> candidate = new ArrayList<>();
+            candidate.add(new HashSet<>(valid.get(0)));
+            candidate.add(new HashSet<>(valid.get(1)));
+            String lab = graph.labelOf(random.nextInt(graph.nodeCount()));
+            switch (i % 5) {
+                case 0: // unchanged
+                    break;
+                case 1: // a lab moved to the other instructor
+                    if (!candidate.get(0).remove(lab)) {
+                        candidate.get(1).remove(lab);
+                        candidate.get(0).add(lab);
+                    } else {
+                        candidate.get(1).add(lab);
+                    }
+                    break;
+                case 2: // a lab in both sets
+                    candidate.get(0).add(lab);
+                    candidate.get(1).add(lab);
+                    break;
+                case 3: // a lab left out
+                    candidate.get(0).remove(lab);
+                    candidate.get(1).remove(lab);
+                    break;
+                default: // a third set
+                    candidate.add(new HashSet<>());
+            }
+            candidates.add(candidate);
+        }
+        boolean[] verdicts = Scheduler.checkValidityBatch(graph, candidates);
+        for (int i = 0; i < candidates.size(); i++) {
+            Assert.assertEquals(Scheduler.checkValidity(graph, candidates.get(i)), verdicts[i]);
+        }
+        Assert.assertTrue(verdicts[0]);
+    }
+
+    // Asserts that cycle is an odd cycle of undirected edges in graph
+    private void assertOddCycle(IGraph graph, List<String> cycle) {
+        Assert.assertEquals(1, cycle.size() % 2);
+        Assert.assertEquals(cycle.size(), new HashSet<>(cycle).size());
+        for (int i = 0; i < cycle.size(); i++) {
+            String next = cycle.get((i + 1) % cycle.size());
+            Assert.assertTrue(graph.getNeighbors(cycle.get(i)).contains(next));
+        }
+    }
+
+    @Test
+    public void testFindScheduleOddCycle() throws NodeNameExistsException {
+        IGraph hardGraph = new NodeEdgeGraph("a graph");
+        hardGraph.addUndirectedEdge("lab 1", "lab 3");
+        hardGraph.addUndirectedEdge("lab 1", "lab 4");
+        hardGraph.addUndirectedEdge("lab 2", "lab 5");
+        hardGraph.addUndirectedEdge("lab 2", "lab 4");
+        hardGraph.addUndirectedEdge("lab 3", "lab 5");
+        hardGraph.addUndirectedEdge("lab 6", "lab 7");
+        try {
+            Scheduler.findSchedule(hardGraph);
+            Assert.fail("findSchedule found a schedule");
+        } catch (NoScheduleException e) {
+            Assert.assertEquals(5, e.getOddCycle().size());
+            assertOddCycle(hardGraph, e.getOddCycle());
+        }
+
+        IGraph selfEdge = new EdgeArrayGraph("a graph");
+        selfEdge.addUndirectedEdge("lab 1", "lab 2");
+        selfEdge.addDirectedEdge("lab 2", "lab 2");
+        try {
+            Scheduler.findSchedule(selfEdge);
+            Assert.fail("findSchedule found a schedule");
+        } catch (NoScheduleException e) {
+            Assert.assertEquals(List.of("lab 2"), e.getOddCycle());
+        }
+    }
+
+    @Test
+    public void testFindScheduleAllConflicts() throws NoScheduleException {
+        IGraph graph = new NodeEdgeGraph("a graph");
+        for (int c = 0; c < 10; c++) {
+            // components with an even index are odd cycles of length 3 to 11, the others are even cycles
+            int size = 3 + c;
+            for (int i = 0; i < size; i++) {
+                graph.addUndirectedEdge("lab " + c + "." + i, "lab " + c + "." + ((i + 1) % size));
+            }
+            graph.addUndirectedEdge("lab " + c + ".0", "lab " + c + ".tail");
+        }
+        try {
+            Scheduler.findSchedule(graph, true);
+            Assert.fail("findSchedule found a schedule");
+        } catch (NoScheduleException e) {
+            Assert.assertEquals(5, e.getOddCycles().size());
+            for (List<String> cycle : e.getOddCycles()) {
+                assertOddCycle(graph, cycle);
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Scheduler.findScheduleParallel(graph, pool);
+            Assert.fail("findScheduleParallel found a schedule");
+        } catch (NoScheduleException e) {
+            assertOddCycle(graph, e.getOddCycle());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testFindScheduleInstructors() throws NoScheduleException {
+        IGraph graph = new NodeEdgeGraph("a graph");
+        for (int i = 0; i < 5; i++) {
+            for (int j = i + 1; j < 5; j++) {
+                graph.addUndirectedEdge("lab " + i, "lab " + j);
+            }
+        }
+        // five labs that all conflict need five instructors
+        Assert.assertThrows(NoScheduleException.class, () -> Scheduler.findSchedule(graph, 4));
+        ArrayList<HashSet<String>> schedule = Scheduler.findSchedule(graph, 5);
+        Assert.assertEquals(5, schedule.size());
+        Assert.assertTrue(Scheduler.checkValidity(graph, schedule, 5));
+        Assert.assertFalse(Scheduler.checkValidity(graph, schedule, 4));
+        schedule.get(0).addAll(schedule.get(1));
+        schedule.get(1).clear();
+        Assert.assertFalse(Scheduler.checkValidity(graph, schedule, 5));
+
+        IGraph triangle = new EdgeArrayGraph("a triangle");
+        triangle.addUndirectedEdge("lab 1", "lab 2");
+        triangle.addUndirectedEdge("lab 2", "lab 3");
+        triangle.addDirectedEdge("lab 3", "lab 1");
+        Assert.assertThrows(NoScheduleException.class, () -> Scheduler.findSchedule(triangle, 2));
+        Assert.assertTrue(Scheduler.checkValidity(triangle, Scheduler.findSchedule(triangle, 3), 3));
+        Assert.assertThrows(NoScheduleException.class, () -> Scheduler.findSchedule(triangle, 1));
+        triangle.addDirectedEdge("lab 1", "lab 1");
+        Assert.assertThrows(NoScheduleException.class, () -> Scheduler.findSchedule(triangle, 4));
+    }
+
+    @Test
+    public void testFindScheduleInstructorsLargeGraph() throws NoScheduleException, NodeNameExistsException {
+        Random random = new Random(3);
+        IGraph graph = new NodeEdgeGraph("a random graph");
+        for (int i = 0; i < 200000; i++) {
+            graph.addNode("lab " + i);
+        }
+        for (int i = 0; i < 400000; i++) {
+            int from = random.nextInt(200000);
+            int to = random.nextInt(200000);
+            if (from != to) {
+                graph.addDirectedEdge("lab " + from, "lab " + to);
+            }
+        }
+        ArrayList<HashSet<String>> schedule = Scheduler.findSchedule(graph, 4);
+        Assert.assertEquals(graph.nodeCount(), schedule.stream().mapToInt(HashSet::size).sum());
+        Assert.assertTrue(Scheduler.checkValidity(graph, schedule, 4));
+    }
+
 }